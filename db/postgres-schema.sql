@@ -7,7 +7,9 @@ CREATE TABLE IF NOT EXISTS tests (
     video_title TEXT,
     score INTEGER,
     total_questions INTEGER,
-    transcript TEXT
+    transcript TEXT,
+    catalog_video_id BIGINT,
+    chunk_set_version VARCHAR(64)
 );
 
 CREATE INDEX IF NOT EXISTS idx_tests_learner_id ON tests(learner_id);
@@ -19,7 +21,8 @@ CREATE TABLE IF NOT EXISTS questions (
     type VARCHAR(50),
     text TEXT,
     options TEXT,
-    correct_answer TEXT
+    correct_answer TEXT,
+    query_embedding BYTEA
 );
 
 -- Tracks which questions were answered incorrectly per test.
@@ -31,11 +34,14 @@ CREATE TABLE IF NOT EXISTS wrong_questions (
 );
 
 -- Transcript chunks and embeddings for a specific test.
+-- embedding_vector: EmbeddingCodec binary (header + little-endian float32).
 CREATE TABLE IF NOT EXISTS transcript_chunks (
     id BIGSERIAL PRIMARY KEY,
     test_id BIGINT REFERENCES tests(id) ON DELETE CASCADE,
     content TEXT,
-    embedding TEXT
+    start_offset INTEGER,
+    end_offset INTEGER,
+    embedding_vector BYTEA
 );
 
 -- Observability logs for retrieval/judge/feedback events.
@@ -98,17 +104,22 @@ CREATE TABLE IF NOT EXISTS catalog_preparations (
     transcript_ready BOOLEAN DEFAULT FALSE,
     embeddings_ready BOOLEAN DEFAULT FALSE,
     chunk_count INTEGER,
+    transcript_version VARCHAR(64),
     prepared_at TIMESTAMP,
     last_error TEXT,
     UNIQUE (catalog_video_id)
 );
 
--- Stored transcript chunks + embeddings for a catalog video (reused when creating tests).
+-- Stored transcript chunks + embeddings for a catalog video. Each transcript_version is an immutable chunk set
+-- that tests reference via (tests.catalog_video_id, tests.chunk_set_version) instead of copying rows.
 CREATE TABLE IF NOT EXISTS catalog_transcript_chunks (
     id BIGSERIAL PRIMARY KEY,
     catalog_video_id BIGINT NOT NULL REFERENCES catalog_videos(id) ON DELETE CASCADE,
+    transcript_version VARCHAR(64),
     content TEXT,
-    embedding TEXT
+    start_offset INTEGER,
+    end_offset INTEGER,
+    embedding_vector BYTEA
 );
 
 -- Pre-generated question packs (multiple sizes, includes at least one writing prompt) per catalog video.
@@ -118,7 +129,79 @@ CREATE TABLE IF NOT EXISTS catalog_question_packs (
     size INTEGER,
     difficulty TEXT,
     includes_writing BOOLEAN,
+    transcript_version VARCHAR(64),
     questions_json TEXT,
     created_at TIMESTAMP,
     last_error TEXT
 );
+
+-- Content-addressed embedding cache: (model, SHA-256 of normalized text) -> EmbeddingCodec vector.
+CREATE TABLE IF NOT EXISTS embedding_cache (
+    id BIGSERIAL PRIMARY KEY,
+    model TEXT NOT NULL,
+    text_hash VARCHAR(64) NOT NULL,
+    embedding_vector BYTEA,
+    created_at TIMESTAMP
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_embedding_cache_model_hash ON embedding_cache(model, text_hash);
+
+CREATE TABLE IF NOT EXISTS generation_cache (
+    id BIGSERIAL PRIMARY KEY,
+    cache_key VARCHAR(64) NOT NULL,
+    transcript_hash VARCHAR(64) NOT NULL,
+    model TEXT,
+    difficulty VARCHAR(32),
+    question_count INTEGER,
+    includes_writing BOOLEAN,
+    questions_json TEXT,
+    served_count INTEGER,
+    last_served_at TIMESTAMP,
+    created_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_generation_cache_key ON generation_cache(cache_key, created_at);
+
+CREATE TABLE IF NOT EXISTS question_bank (
+    id BIGSERIAL PRIMARY KEY,
+    video_key VARCHAR(64) NOT NULL,
+    transcript_hash VARCHAR(64) NOT NULL,
+    difficulty VARCHAR(32),
+    type VARCHAR(32),
+    text TEXT,
+    options TEXT,
+    correct_answer TEXT,
+    query_embedding BYTEA,
+    served_count INTEGER,
+    created_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_question_bank_video ON question_bank(video_key, transcript_hash, difficulty);
+
+-- Migration: comma-separated TEXT embeddings -> binary embedding_vector.
+-- Existing rows are converted on startup by LegacyEmbeddingMigration (app.rag.migrate-legacy-embeddings=true).
+-- Once it logs no remaining rows, the legacy columns can be dropped:
+--   ALTER TABLE transcript_chunks DROP COLUMN IF EXISTS embedding;
+--   ALTER TABLE catalog_transcript_chunks DROP COLUMN IF EXISTS embedding;
+ALTER TABLE transcript_chunks ADD COLUMN IF NOT EXISTS embedding_vector BYTEA;
+ALTER TABLE catalog_transcript_chunks ADD COLUMN IF NOT EXISTS embedding_vector BYTEA;
+
+-- Migration: precomputed retrieval query vectors on questions (EmbeddingCodec format).
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS query_embedding BYTEA;
+
+-- Migration: shared catalog chunk sets. Unversioned chunk sets are versioned lazily on first use.
+ALTER TABLE tests ADD COLUMN IF NOT EXISTS catalog_video_id BIGINT;
+ALTER TABLE tests ADD COLUMN IF NOT EXISTS chunk_set_version VARCHAR(64);
+ALTER TABLE catalog_preparations ADD COLUMN IF NOT EXISTS transcript_version VARCHAR(64);
+ALTER TABLE catalog_transcript_chunks ADD COLUMN IF NOT EXISTS transcript_version VARCHAR(64);
+CREATE INDEX IF NOT EXISTS idx_catalog_chunks_video_version ON catalog_transcript_chunks(catalog_video_id, transcript_version);
+
+-- Migration: chunks reference [start_offset, end_offset) of the transcript instead of copying text.
+-- Existing rows keep their content and are read as before.
+ALTER TABLE transcript_chunks ADD COLUMN IF NOT EXISTS start_offset INTEGER;
+ALTER TABLE transcript_chunks ADD COLUMN IF NOT EXISTS end_offset INTEGER;
+ALTER TABLE catalog_transcript_chunks ADD COLUMN IF NOT EXISTS start_offset INTEGER;
+ALTER TABLE catalog_transcript_chunks ADD COLUMN IF NOT EXISTS end_offset INTEGER;
+
+-- Migration: packs record the transcript they were generated from so current packs are not regenerated.
+ALTER TABLE catalog_question_packs ADD COLUMN IF NOT EXISTS transcript_version VARCHAR(64);
@@ -0,0 +1,151 @@
+package com.example.youtubeenglishtutor.controller;
+
+import com.example.youtubeenglishtutor.entity.Test;
+import com.example.youtubeenglishtutor.repository.TestRepository;
+import com.example.youtubeenglishtutor.service.EmbeddingCache;
+import com.example.youtubeenglishtutor.service.GenerationCache;
+import com.example.youtubeenglishtutor.service.QuantizationReport;
+import com.example.youtubeenglishtutor.service.QuestionBank;
+import com.example.youtubeenglishtutor.service.RagService;
+import com.example.youtubeenglishtutor.service.SingleFlight;
+import com.example.youtubeenglishtutor.service.VectorIndexCache;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cache statistics and maintenance. Guarded by the same optional X-Admin-Token as /admin/catalog.
+ *
+ *   - curl http://localhost:8080/admin/cache
+ *   - curl -X POST http://localhost:8080/admin/cache/vector-index/clear
+ *   - curl -X POST "http://localhost:8080/admin/cache/embeddings/purge?model=text-embedding-3-small"
+ *   - curl -X POST http://localhost:8080/admin/cache/generations/purge
+ *   - curl "http://localhost:8080/admin/cache/quantization-report?testId=42&k=5"
+ */
+@RestController
+@RequestMapping("/admin/cache")
+public class AdminCacheController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminCacheController.class);
+
+    private final VectorIndexCache vectorIndexCache;
+    private final EmbeddingCache embeddingCache;
+    private final GenerationCache generationCache;
+    private final QuestionBank questionBank;
+    private final TestRepository testRepository;
+    private final RagService ragService;
+    private final SingleFlight singleFlight;
+
+    @Value("${app.admin.token:}")
+    private String adminToken;
+
+    public AdminCacheController(
+            VectorIndexCache vectorIndexCache,
+            EmbeddingCache embeddingCache,
+            GenerationCache generationCache,
+            QuestionBank questionBank,
+            TestRepository testRepository,
+            RagService ragService,
+            SingleFlight singleFlight) {
+        this.vectorIndexCache = vectorIndexCache;
+        this.embeddingCache = embeddingCache;
+        this.generationCache = generationCache;
+        this.questionBank = questionBank;
+        this.testRepository = testRepository;
+        this.ragService = ragService;
+        this.singleFlight = singleFlight;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> stats(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!authorized(token)) {
+            return unauthorized();
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("vectorIndex", vectorIndexCache.stats().toMap());
+        out.put("embeddings", embeddingCache.stats().toMap());
+        out.put("generations", generationCache.stats().toMap());
+        out.put("questionBank", questionBank.stats().toMap());
+        out.put("singleFlight", singleFlight.stats().toMap());
+        return ResponseEntity.ok(out);
+    }
+
+    @PostMapping("/vector-index/clear")
+    public ResponseEntity<?> clearVectorIndex(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!authorized(token)) {
+            return unauthorized();
+        }
+        vectorIndexCache.clear();
+        log.info("Vector index cache cleared by admin request");
+        return ResponseEntity.ok(vectorIndexCache.stats().toMap());
+    }
+
+    @PostMapping("/embeddings/purge")
+    public ResponseEntity<?> purgeEmbeddings(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @RequestParam(value = "model", required = false) String model) {
+        if (!authorized(token)) {
+            return unauthorized();
+        }
+        int deleted = embeddingCache.purge(StringUtils.hasText(model) ? model.trim() : null);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("deleted", deleted);
+        out.putAll(embeddingCache.stats().toMap());
+        return ResponseEntity.ok(out);
+    }
+
+    @PostMapping("/generations/purge")
+    public ResponseEntity<?> purgeGenerations(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!authorized(token)) {
+            return unauthorized();
+        }
+        int deleted = generationCache.purge();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("deleted", deleted);
+        out.putAll(generationCache.stats().toMap());
+        return ResponseEntity.ok(out);
+    }
+
+    /**
+     * Recall@k and per-page scan latency of the int8 index (with and without float32 rescoring) versus exact
+     * ranking, using the given test's questions and chunks.
+     */
+    @GetMapping("/quantization-report")
+    public ResponseEntity<?> quantizationReport(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token,
+            @RequestParam("testId") Long testId,
+            @RequestParam(value = "k", defaultValue = "5") int k) {
+        if (!authorized(token)) {
+            return unauthorized();
+        }
+        Test test = testRepository.findById(testId).orElse(null);
+        QuantizationReport report = test != null ? ragService.quantizationReport(test, k) : null;
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No chunks for test " + testId));
+        }
+        return ResponseEntity.ok(report.toMap());
+    }
+
+    private boolean authorized(String token) {
+        if (StringUtils.hasText(adminToken) && !adminToken.equals(token)) {
+            log.warn("Admin cache request denied: missing/invalid X-Admin-Token");
+            return false;
+        }
+        return true;
+    }
+
+    private ResponseEntity<?> unauthorized() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Unauthorized"));
+    }
+}
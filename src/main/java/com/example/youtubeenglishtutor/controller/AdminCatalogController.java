@@ -1,7 +1,10 @@
 package com.example.youtubeenglishtutor.controller;
 
 import com.example.youtubeenglishtutor.entity.CatalogCategory;
+import com.example.youtubeenglishtutor.service.JobPipeline;
+import com.example.youtubeenglishtutor.service.OpenAiRateLimiter;
 import com.example.youtubeenglishtutor.service.VideoCatalogRefreshJob;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +12,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,12 +26,31 @@ public class AdminCatalogController {
     private static final Logger log = LoggerFactory.getLogger(AdminCatalogController.class);
 
     private final VideoCatalogRefreshJob refreshJob;
+    private final JobPipeline jobPipeline;
+    private final OpenAiRateLimiter rateLimiter;
 
     @Value("${app.admin.token:}")
     private String adminToken;
 
-    public AdminCatalogController(VideoCatalogRefreshJob refreshJob) {
+    public AdminCatalogController(VideoCatalogRefreshJob refreshJob, JobPipeline jobPipeline, OpenAiRateLimiter rateLimiter) {
         this.refreshJob = refreshJob;
+        this.jobPipeline = jobPipeline;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Last run of each nightly job (throughput, failures, retries) and the shared OpenAI rate limiter state.
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<?> pipeline(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (StringUtils.hasText(adminToken) && !adminToken.equals(token)) {
+            log.warn("Pipeline stats request denied: missing/invalid X-Admin-Token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized"));
+        }
+        Map<String, Object> out = new LinkedHashMap<>(jobPipeline.stats());
+        out.put("openAiRateLimit", rateLimiter.stats());
+        return ResponseEntity.ok(out);
     }
 
     @PostMapping("/refresh")
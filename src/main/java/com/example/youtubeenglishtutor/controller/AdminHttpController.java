@@ -0,0 +1,43 @@
+package com.example.youtubeenglishtutor.controller;
+
+import com.example.youtubeenglishtutor.service.OutboundHttpClients;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/http")
+public class AdminHttpController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminHttpController.class);
+
+    private final OutboundHttpClients outboundHttpClients;
+
+    @Value("${app.admin.token:}")
+    private String adminToken;
+
+    public AdminHttpController(OutboundHttpClients outboundHttpClients) {
+        this.outboundHttpClients = outboundHttpClients;
+    }
+
+    /**
+     * Shared connection pool occupancy and, per upstream, attempts, retries, latency percentiles and breaker state.
+     */
+    @GetMapping
+    public ResponseEntity<?> stats(@RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (StringUtils.hasText(adminToken) && !adminToken.equals(token)) {
+            log.warn("HTTP client stats request denied: missing/invalid X-Admin-Token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized"));
+        }
+        return ResponseEntity.ok(outboundHttpClients.stats());
+    }
+}
@@ -62,9 +62,10 @@ public class TestController {
             @RequestParam("videoUrl") String videoUrl,
             @RequestParam(value = "downloadPath", required = false) String downloadPath,
             @RequestParam(value = "useDefaultPath", defaultValue = "false") boolean useDefaultPath,
+            @RequestParam(value = "freshQuestions", defaultValue = "false") boolean freshQuestions,
             Model model) {
         try {
-            Test test = testService.createTest(videoUrl, downloadPath, useDefaultPath);
+            Test test = testService.createTest(videoUrl, downloadPath, useDefaultPath, null, freshQuestions, q -> { });
             return "redirect:/tests/" + test.getId();
         } catch (IllegalArgumentException ex) {
             model.addAttribute("error", ex.getMessage());
@@ -215,10 +216,10 @@ public class TestController {
     }
 
     private Map<Long, String> buildSnippets(Test test) {
+        Map<Long, String> raw = ragService.findBestSnippets(test, test.getQuestions());
         Map<Long, String> snippets = new HashMap<>();
         for (Question question : test.getQuestions()) {
-            String snippet = ragService.findBestSnippet(test, question);
-            snippets.put(question.getId(), highlight(snippet, question));
+            snippets.put(question.getId(), highlight(raw.get(question.getId()), question));
         }
         return snippets;
     }
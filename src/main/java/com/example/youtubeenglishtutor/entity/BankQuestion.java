@@ -0,0 +1,145 @@
+package com.example.youtubeenglishtutor.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A validated question in a video's shared question bank. Tests get copies, never the bank row itself.
+ */
+@Entity
+@Table(
+        name = "question_bank",
+        indexes = {
+                @Index(name = "idx_question_bank_video", columnList = "video_key,transcript_hash,difficulty")
+        }
+)
+public class BankQuestion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "video_key", nullable = false, length = 64)
+    private String videoKey; // YouTube video id, or a hash of the URL when there is none
+
+    @Column(name = "transcript_hash", nullable = false, length = 64)
+    private String transcriptHash;
+
+    private String difficulty;
+
+    @Enumerated(EnumType.STRING)
+    private QuestionType type;
+
+    @Column(columnDefinition = "TEXT")
+    private String text;
+
+    @Column(columnDefinition = "TEXT")
+    private String options;
+
+    @Column(columnDefinition = "TEXT")
+    private String correctAnswer;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] queryEmbedding;
+
+    private Integer servedCount;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.servedCount == null) {
+            this.servedCount = 0;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getVideoKey() {
+        return videoKey;
+    }
+
+    public void setVideoKey(String videoKey) {
+        this.videoKey = videoKey;
+    }
+
+    public String getTranscriptHash() {
+        return transcriptHash;
+    }
+
+    public void setTranscriptHash(String transcriptHash) {
+        this.transcriptHash = transcriptHash;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public QuestionType getType() {
+        return type;
+    }
+
+    public void setType(QuestionType type) {
+        this.type = type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getOptions() {
+        return options;
+    }
+
+    public void setOptions(String options) {
+        this.options = options;
+    }
+
+    public String getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    public void setCorrectAnswer(String correctAnswer) {
+        this.correctAnswer = correctAnswer;
+    }
+
+    public byte[] getQueryEmbedding() {
+        return queryEmbedding;
+    }
+
+    public void setQueryEmbedding(byte[] queryEmbedding) {
+        this.queryEmbedding = queryEmbedding;
+    }
+
+    public Integer getServedCount() {
+        return servedCount;
+    }
+
+    public void setServedCount(Integer servedCount) {
+        this.servedCount = servedCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
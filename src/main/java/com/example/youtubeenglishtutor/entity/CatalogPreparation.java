@@ -31,6 +31,11 @@ public class CatalogPreparation {
 
     private Integer chunkCount;
 
+    @Column(length = 64)
+    private String transcriptVersion; // version of the current shared chunk set
+
+    private LocalDateTime versionChangedAt; // when transcriptVersion last changed; older sets are kept for a grace period
+
     private LocalDateTime preparedAt;
 
     @Column(columnDefinition = "TEXT")
@@ -80,6 +85,22 @@ public class CatalogPreparation {
         this.chunkCount = chunkCount;
     }
 
+    public String getTranscriptVersion() {
+        return transcriptVersion;
+    }
+
+    public void setTranscriptVersion(String transcriptVersion) {
+        this.transcriptVersion = transcriptVersion;
+    }
+
+    public LocalDateTime getVersionChangedAt() {
+        return versionChangedAt;
+    }
+
+    public void setVersionChangedAt(LocalDateTime versionChangedAt) {
+        this.versionChangedAt = versionChangedAt;
+    }
+
     public LocalDateTime getPreparedAt() {
         return preparedAt;
     }
@@ -29,6 +29,9 @@ public class CatalogQuestionPack {
 
     private Boolean includesWriting;
 
+    @Column(length = 64)
+    private String transcriptVersion; // SHA-256 of the transcript the questions were generated from
+
     @Column(columnDefinition = "TEXT")
     private String questionsJson;
 
@@ -37,6 +40,8 @@ public class CatalogQuestionPack {
     @Column(columnDefinition = "TEXT")
     private String lastError;
 
+    private LocalDateTime failedAt; // when lastError was recorded; drives the nightly retry backoff
+
     public Long getId() {
         return id;
     }
@@ -73,6 +78,14 @@ public class CatalogQuestionPack {
         this.includesWriting = includesWriting;
     }
 
+    public String getTranscriptVersion() {
+        return transcriptVersion;
+    }
+
+    public void setTranscriptVersion(String transcriptVersion) {
+        this.transcriptVersion = transcriptVersion;
+    }
+
     public String getQuestionsJson() {
         return questionsJson;
     }
@@ -96,5 +109,13 @@ public class CatalogQuestionPack {
     public void setLastError(String lastError) {
         this.lastError = lastError;
     }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
 }
 
@@ -6,12 +6,18 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "catalog_transcript_chunks")
+@Table(
+        name = "catalog_transcript_chunks",
+        indexes = {
+                @Index(name = "idx_catalog_chunks_video_version", columnList = "catalog_video_id,transcript_version")
+        }
+)
 public class CatalogTranscriptChunk {
 
     @Id
@@ -22,11 +28,20 @@ public class CatalogTranscriptChunk {
     @JoinColumn(name = "catalog_video_id", nullable = false)
     private CatalogVideo catalogVideo;
 
-    @Column(columnDefinition = "TEXT")
-    private String content;
+    @Column(name = "transcript_version", length = 64)
+    private String transcriptVersion; // SHA-256 of the transcript this chunk set was cut from
 
     @Column(columnDefinition = "TEXT")
-    private String embedding;
+    private String content; // legacy rows only; newer rows store offsets
+
+    @Column(name = "start_offset")
+    private Integer startOffset; // [startOffset, endOffset) into the versioned transcript
+
+    @Column(name = "end_offset")
+    private Integer endOffset;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] embeddingVector; // EmbeddingCodec binary float32 vector
 
     public Long getId() {
         return id;
@@ -40,6 +55,14 @@ public class CatalogTranscriptChunk {
         this.catalogVideo = catalogVideo;
     }
 
+    public String getTranscriptVersion() {
+        return transcriptVersion;
+    }
+
+    public void setTranscriptVersion(String transcriptVersion) {
+        this.transcriptVersion = transcriptVersion;
+    }
+
     public String getContent() {
         return content;
     }
@@ -48,12 +71,28 @@ public class CatalogTranscriptChunk {
         this.content = content;
     }
 
-    public String getEmbedding() {
-        return embedding;
+    public Integer getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(Integer startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public Integer getEndOffset() {
+        return endOffset;
+    }
+
+    public void setEndOffset(Integer endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public byte[] getEmbeddingVector() {
+        return embeddingVector;
     }
 
-    public void setEmbedding(String embedding) {
-        this.embedding = embedding;
+    public void setEmbeddingVector(byte[] embeddingVector) {
+        this.embeddingVector = embeddingVector;
     }
 }
 
@@ -0,0 +1,73 @@
+package com.example.youtubeenglishtutor.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "embedding_cache",
+        indexes = {
+                @Index(name = "uq_embedding_cache_model_hash", columnList = "model,text_hash", unique = true)
+        }
+)
+public class EmbeddingCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String model;
+
+    @Column(name = "text_hash", nullable = false, length = 64)
+    private String textHash; // SHA-256 hex of the normalized input text
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] embeddingVector;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getTextHash() {
+        return textHash;
+    }
+
+    public void setTextHash(String textHash) {
+        this.textHash = textHash;
+    }
+
+    public byte[] getEmbeddingVector() {
+        return embeddingVector;
+    }
+
+    public void setEmbeddingVector(byte[] embeddingVector) {
+        this.embeddingVector = embeddingVector;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
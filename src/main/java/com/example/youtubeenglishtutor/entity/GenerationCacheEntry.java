@@ -0,0 +1,140 @@
+package com.example.youtubeenglishtutor.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * One generated question set (a "variant") for a (transcript, model, difficulty, count, includeWriting) key.
+ */
+@Entity
+@Table(
+        name = "generation_cache",
+        indexes = {
+                @Index(name = "idx_generation_cache_key", columnList = "cache_key,created_at")
+        }
+)
+public class GenerationCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey; // SHA-256 hex of transcript hash + model + difficulty + count + includeWriting
+
+    @Column(name = "transcript_hash", nullable = false, length = 64)
+    private String transcriptHash;
+
+    private String model;
+
+    private String difficulty;
+
+    private Integer questionCount;
+
+    private Boolean includesWriting;
+
+    @Column(columnDefinition = "TEXT")
+    private String questionsJson;
+
+    private Integer servedCount;
+
+    private LocalDateTime lastServedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.servedCount == null) {
+            this.servedCount = 0;
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    public String getTranscriptHash() {
+        return transcriptHash;
+    }
+
+    public void setTranscriptHash(String transcriptHash) {
+        this.transcriptHash = transcriptHash;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Integer getQuestionCount() {
+        return questionCount;
+    }
+
+    public void setQuestionCount(Integer questionCount) {
+        this.questionCount = questionCount;
+    }
+
+    public Boolean getIncludesWriting() {
+        return includesWriting;
+    }
+
+    public void setIncludesWriting(Boolean includesWriting) {
+        this.includesWriting = includesWriting;
+    }
+
+    public String getQuestionsJson() {
+        return questionsJson;
+    }
+
+    public void setQuestionsJson(String questionsJson) {
+        this.questionsJson = questionsJson;
+    }
+
+    public Integer getServedCount() {
+        return servedCount;
+    }
+
+    public void setServedCount(Integer servedCount) {
+        this.servedCount = servedCount;
+    }
+
+    public LocalDateTime getLastServedAt() {
+        return lastServedAt;
+    }
+
+    public void setLastServedAt(LocalDateTime lastServedAt) {
+        this.lastServedAt = lastServedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
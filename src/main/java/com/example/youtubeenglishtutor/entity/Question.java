@@ -40,6 +40,9 @@ public class Question {
     @Column(columnDefinition = "TEXT")
     private String correctAnswer;
 
+    @Column(columnDefinition = "BYTEA")
+    private byte[] queryEmbedding; // EmbeddingCodec vector of text + answer, used for snippet retrieval
+
     public Long getId() {
         return id;
     }
@@ -84,6 +87,14 @@ public class Question {
         this.correctAnswer = correctAnswer;
     }
 
+    public byte[] getQueryEmbedding() {
+        return queryEmbedding;
+    }
+
+    public void setQueryEmbedding(byte[] queryEmbedding) {
+        this.queryEmbedding = queryEmbedding;
+    }
+
     public List<String> getOptionList() {
         if (options == null || options.isBlank()) {
             return Collections.emptyList();
@@ -36,6 +36,16 @@ public class Test {
     @jakarta.persistence.Column(columnDefinition = "TEXT")
     private String transcript;
 
+    // When set, retrieval reads the shared catalog chunk set (catalogVideoId, chunkSetVersion) instead of transcriptChunks.
+    private Long catalogVideoId;
+
+    @jakarta.persistence.Column(length = 64)
+    private String chunkSetVersion;
+
+    // DifficultyLevel name of the current questions; null for tests created before it was recorded (NORMAL).
+    @jakarta.persistence.Column(length = 16)
+    private String difficulty;
+
     @OneToMany(mappedBy = "test", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     private List<Question> questions = new ArrayList<>();
 
@@ -106,6 +116,34 @@ public class Test {
         this.transcript = transcript;
     }
 
+    public Long getCatalogVideoId() {
+        return catalogVideoId;
+    }
+
+    public void setCatalogVideoId(Long catalogVideoId) {
+        this.catalogVideoId = catalogVideoId;
+    }
+
+    public String getChunkSetVersion() {
+        return chunkSetVersion;
+    }
+
+    public void setChunkSetVersion(String chunkSetVersion) {
+        this.chunkSetVersion = chunkSetVersion;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public boolean usesSharedChunks() {
+        return catalogVideoId != null && chunkSetVersion != null;
+    }
+
     public List<Question> getQuestions() {
         return questions;
     }
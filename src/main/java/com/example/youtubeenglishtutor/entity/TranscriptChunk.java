@@ -23,10 +23,16 @@ public class TranscriptChunk {
     private Test test;
 
     @Column(columnDefinition = "TEXT")
-    private String content;
+    private String content; // legacy rows only; newer rows store offsets
 
-    @Column(columnDefinition = "TEXT")
-    private String embedding; // comma-separated vector for portability
+    @Column(name = "start_offset")
+    private Integer startOffset; // [startOffset, endOffset) into Test.transcript
+
+    @Column(name = "end_offset")
+    private Integer endOffset;
+
+    @Column(columnDefinition = "BYTEA")
+    private byte[] embeddingVector; // EmbeddingCodec binary float32 vector
 
     public Long getId() {
         return id;
@@ -48,11 +54,27 @@ public class TranscriptChunk {
         this.content = content;
     }
 
-    public String getEmbedding() {
-        return embedding;
+    public Integer getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(Integer startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public Integer getEndOffset() {
+        return endOffset;
+    }
+
+    public void setEndOffset(Integer endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public byte[] getEmbeddingVector() {
+        return embeddingVector;
     }
 
-    public void setEmbedding(String embedding) {
-        this.embedding = embedding;
+    public void setEmbeddingVector(byte[] embeddingVector) {
+        this.embeddingVector = embeddingVector;
     }
 }
@@ -0,0 +1,25 @@
+package com.example.youtubeenglishtutor.repository;
+
+import com.example.youtubeenglishtutor.entity.BankQuestion;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface BankQuestionRepository extends JpaRepository<BankQuestion, Long> {
+
+    List<BankQuestion> findByVideoKeyAndTranscriptHashAndDifficultyOrderByIdAsc(String videoKey, String transcriptHash, String difficulty);
+
+    @Transactional
+    @Modifying
+    @Query("update BankQuestion q set q.servedCount = coalesce(q.servedCount, 0) + 1 where q.id in :ids")
+    int incrementServed(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("delete from BankQuestion q where q.videoKey = :videoKey and q.transcriptHash <> :transcriptHash")
+    int deleteStaleVersions(@Param("videoKey") String videoKey, @Param("transcriptHash") String transcriptHash);
+}
@@ -3,9 +3,27 @@ package com.example.youtubeenglishtutor.repository;
 import com.example.youtubeenglishtutor.entity.CatalogPreparation;
 import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CatalogPreparationRepository extends JpaRepository<CatalogPreparation, Long> {
     Optional<CatalogPreparation> findByCatalogVideo(CatalogVideo catalogVideo);
-}
 
+    @Query(value = """
+            select p
+            from CatalogPreparation p
+            join fetch p.catalogVideo v
+            where v.active = true
+              and p.transcriptReady = true
+            order by p.preparedAt desc nulls last
+            """,
+            countQuery = """
+            select count(p)
+            from CatalogPreparation p
+            where p.catalogVideo.active = true
+              and p.transcriptReady = true
+            """)
+    Page<CatalogPreparation> findTranscriptReady(Pageable pageable);
+}
@@ -10,7 +10,7 @@ import org.springframework.data.repository.query.Param;
 
 public interface CatalogQuestionPackRepository extends JpaRepository<CatalogQuestionPack, Long> {
 
-    Optional<CatalogQuestionPack> findFirstByCatalogVideoAndSize(CatalogVideo video, int size);
+    Optional<CatalogQuestionPack> findFirstByCatalogVideoAndSizeAndDifficulty(CatalogVideo video, int size, String difficulty);
 
     List<CatalogQuestionPack> findByCatalogVideo(CatalogVideo video);
 
@@ -18,8 +18,13 @@ public interface CatalogQuestionPackRepository extends JpaRepository<CatalogQues
             select p
             from CatalogQuestionPack p
             where p.catalogVideo = :video
+              and p.difficulty = :difficulty
+              and p.questionsJson is not null
             order by abs(p.size - :desiredSize) asc
             """)
-    List<CatalogQuestionPack> findNearest(@Param("video") CatalogVideo video, @Param("desiredSize") int desiredSize);
+    List<CatalogQuestionPack> findNearest(
+            @Param("video") CatalogVideo video,
+            @Param("desiredSize") int desiredSize,
+            @Param("difficulty") String difficulty);
 }
 
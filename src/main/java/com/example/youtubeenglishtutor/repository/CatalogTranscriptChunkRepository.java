@@ -3,14 +3,37 @@ package com.example.youtubeenglishtutor.repository;
 import com.example.youtubeenglishtutor.entity.CatalogTranscriptChunk;
 import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface CatalogTranscriptChunkRepository extends JpaRepository<CatalogTranscriptChunk, Long> {
 
     List<CatalogTranscriptChunk> findByCatalogVideo(CatalogVideo catalogVideo);
 
+    List<CatalogTranscriptChunk> findByCatalogVideoIdAndTranscriptVersionOrderByIdAsc(Long catalogVideoId, String transcriptVersion);
+
+    Optional<CatalogTranscriptChunk> findFirstByCatalogVideoAndTranscriptVersion(CatalogVideo catalogVideo, String transcriptVersion);
+
+    long countByCatalogVideoAndTranscriptVersion(CatalogVideo catalogVideo, String transcriptVersion);
+
+    @Query("select distinct c.transcriptVersion from CatalogTranscriptChunk c where c.catalogVideo = :video")
+    List<String> findVersions(@Param("video") CatalogVideo video);
+
     @Transactional
     void deleteByCatalogVideo(CatalogVideo catalogVideo);
-}
 
+    @Transactional
+    void deleteByCatalogVideoAndTranscriptVersion(CatalogVideo catalogVideo, String transcriptVersion);
+
+    @Transactional
+    void deleteByCatalogVideoAndTranscriptVersionIsNull(CatalogVideo catalogVideo);
+
+    @Transactional
+    @Modifying
+    @Query("update CatalogTranscriptChunk c set c.transcriptVersion = :version where c.catalogVideo = :video and c.transcriptVersion is null")
+    int assignVersionToUnversioned(@Param("video") CatalogVideo video, @Param("version") String version);
+}
@@ -0,0 +1,25 @@
+package com.example.youtubeenglishtutor.repository;
+
+import com.example.youtubeenglishtutor.entity.EmbeddingCacheEntry;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, Long> {
+
+    List<EmbeddingCacheEntry> findByModelAndTextHashIn(String model, Collection<String> textHashes);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmbeddingCacheEntry e where e.model = :model")
+    int deleteByModel(@Param("model") String model);
+
+    @Transactional
+    @Modifying
+    @Query("delete from EmbeddingCacheEntry e")
+    int deleteAllEntries();
+}
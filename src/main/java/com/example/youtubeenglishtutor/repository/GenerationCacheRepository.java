@@ -0,0 +1,34 @@
+package com.example.youtubeenglishtutor.repository;
+
+import com.example.youtubeenglishtutor.entity.GenerationCacheEntry;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface GenerationCacheRepository extends JpaRepository<GenerationCacheEntry, Long> {
+
+    /**
+     * Unexpired variants for a key, least recently served first.
+     */
+    @Query("""
+            select e
+            from GenerationCacheEntry e
+            where e.cacheKey = :cacheKey and e.createdAt > :cutoff
+            order by e.lastServedAt asc nulls first, e.id asc
+            """)
+    List<GenerationCacheEntry> findFresh(@Param("cacheKey") String cacheKey, @Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from GenerationCacheEntry e where e.cacheKey = :cacheKey and e.createdAt <= :cutoff")
+    int deleteExpired(@Param("cacheKey") String cacheKey, @Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from GenerationCacheEntry e")
+    int deleteAllEntries();
+}
@@ -11,4 +11,5 @@ public interface TestRepository extends JpaRepository<Test, Long> {
     Optional<Test> findFirstByVideoUrlAndLearnerIdOrderByCreatedAtDesc(String videoUrl, String learnerId);
     Optional<Test> findByIdAndLearnerId(Long id, String learnerId);
     List<Test> findByLearnerIdOrderByCreatedAtDesc(String learnerId);
+    boolean existsByCatalogVideoIdAndChunkSetVersion(Long catalogVideoId, String chunkSetVersion);
 }
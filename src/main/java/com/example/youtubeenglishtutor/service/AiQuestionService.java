@@ -2,6 +2,7 @@ package com.example.youtubeenglishtutor.service;
 
 import com.example.youtubeenglishtutor.entity.Question;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AiQuestionService {
     default List<Question> generateQuestionsFromTranscript(String transcript) {
@@ -13,4 +14,23 @@ public interface AiQuestionService {
     }
 
     List<Question> generateQuestionsFromTranscript(String transcript, DifficultyLevel difficulty, int count, boolean includeWriting);
+
+    /**
+     * Same as above, but calls {@code onQuestion} for each question as soon as it is available, in order, before
+     * returning the full list. Streaming implementations deliver the first questions while later ones are
+     * still being generated.
+     */
+    default List<Question> generateQuestionsFromTranscript(
+            String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, Consumer<Question> onQuestion) {
+        List<Question> questions = generateQuestionsFromTranscript(transcript, difficulty, count, includeWriting);
+        questions.forEach(onQuestion);
+        return questions;
+    }
+
+    /**
+     * Identifies the generating model, so cached question sets from a different model are not reused.
+     */
+    default String modelName() {
+        return getClass().getSimpleName();
+    }
 }
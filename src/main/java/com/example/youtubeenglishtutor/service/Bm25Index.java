@@ -0,0 +1,123 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable Okapi BM25 inverted index over the rows of one chunk set. Postings are packed as
+ * {@code [row, tf, row, tf, ...]} int arrays; per-row length normalization is precomputed.
+ */
+public final class Bm25Index {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final int rows;
+    private final Map<String, Postings> postings;
+    private final float[] lengthNorm;
+    private final long postingInts;
+
+    private Bm25Index(int rows, Map<String, Postings> postings, float[] lengthNorm, long postingInts) {
+        this.rows = rows;
+        this.postings = postings;
+        this.lengthNorm = lengthNorm;
+        this.postingInts = postingInts;
+    }
+
+    public static Bm25Index build(List<String> documents) {
+        int n = documents.size();
+        Map<String, List<Integer>> raw = new HashMap<>();
+        int[] lengths = new int[n];
+        long totalLength = 0;
+        for (int row = 0; row < n; row++) {
+            Map<String, Integer> tf = new HashMap<>();
+            List<String> tokens = tokenize(documents.get(row));
+            for (String token : tokens) {
+                tf.merge(token, 1, Integer::sum);
+            }
+            lengths[row] = tokens.size();
+            totalLength += tokens.size();
+            for (Map.Entry<String, Integer> e : tf.entrySet()) {
+                List<Integer> list = raw.computeIfAbsent(e.getKey(), k -> new ArrayList<>());
+                list.add(row);
+                list.add(e.getValue());
+            }
+        }
+        float avgLength = n == 0 ? 1f : Math.max(1f, (float) totalLength / n);
+        float[] lengthNorm = new float[n];
+        for (int row = 0; row < n; row++) {
+            lengthNorm[row] = K1 * (1 - B + B * lengths[row] / avgLength);
+        }
+        Map<String, Postings> postings = new HashMap<>(raw.size() * 2);
+        long ints = 0;
+        for (Map.Entry<String, List<Integer>> e : raw.entrySet()) {
+            int[] packed = e.getValue().stream().mapToInt(Integer::intValue).toArray();
+            int df = packed.length / 2;
+            float idf = (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            postings.put(e.getKey(), new Postings(idf, packed));
+            ints += packed.length;
+        }
+        return new Bm25Index(n, postings, lengthNorm, ints);
+    }
+
+    /**
+     * BM25 score of every row for {@code query}; rows sharing no term with it score 0.
+     */
+    public float[] score(String query) {
+        float[] scores = new float[rows];
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Postings p = postings.get(term);
+            if (p == null) {
+                continue;
+            }
+            int[] packed = p.rowsAndTf();
+            for (int i = 0; i < packed.length; i += 2) {
+                int row = packed[i];
+                float tf = packed[i + 1];
+                scores[row] += p.idf() * tf * (K1 + 1) / (tf + lengthNorm[row]);
+            }
+        }
+        return scores;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public long memoryBytes() {
+        // Rough: map entry + term string + postings header per term, plus the packed ints and norms.
+        return 64L + postings.size() * 96L + postingInts * Integer.BYTES + (long) lengthNorm.length * Float.BYTES;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits; apostrophes inside a word are dropped ("don't" -> "dont").
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if ((c == '\'' || c == '’') && current.length() > 0) {
+                continue;
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private record Postings(float idf, int[] rowsAndTf) {
+    }
+}
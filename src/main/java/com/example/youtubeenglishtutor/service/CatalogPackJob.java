@@ -1,16 +1,19 @@
 package com.example.youtubeenglishtutor.service;
 
 import com.example.youtubeenglishtutor.entity.CatalogPreparation;
-import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import com.example.youtubeenglishtutor.repository.CatalogPreparationRepository;
-import com.example.youtubeenglishtutor.repository.CatalogVideoRepository;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -18,10 +21,11 @@ import org.springframework.stereotype.Service;
 public class CatalogPackJob {
 
     private static final Logger log = LoggerFactory.getLogger(CatalogPackJob.class);
+    private static final int PAGE_SIZE = 50;
 
-    private final CatalogVideoRepository catalogVideoRepository;
     private final CatalogPreparationRepository preparationRepository;
     private final CatalogPackService catalogPackService;
+    private final JobPipeline pipeline;
 
     @Value("${app.pregen.enabled:true}")
     private boolean enabled;
@@ -29,16 +33,28 @@ public class CatalogPackJob {
     @Value("${app.pregen.sizes:5,10,15}")
     private String sizesConfig;
 
+    @Value("${app.pregen.difficulties:NORMAL,EASIER,HARDER}")
+    private String difficultiesConfig;
+
     @Value("${app.pregen.nightly-cap:6}")
     private int nightlyCap;
 
+    /**
+     * One unit of pipeline work: all sizes of one difficulty for one video, i.e. one model call.
+     */
+    private record PackWork(CatalogPreparation prep, DifficultyLevel difficulty) {
+        String label() {
+            return prep.getCatalogVideo().getVideoId() + "/" + difficulty;
+        }
+    }
+
     public CatalogPackJob(
-            CatalogVideoRepository catalogVideoRepository,
             CatalogPreparationRepository preparationRepository,
-            CatalogPackService catalogPackService) {
-        this.catalogVideoRepository = catalogVideoRepository;
+            CatalogPackService catalogPackService,
+            JobPipeline pipeline) {
         this.preparationRepository = preparationRepository;
         this.catalogPackService = catalogPackService;
+        this.pipeline = pipeline;
     }
 
     @Scheduled(cron = "${app.pregen.cron:0 10 3 * * *}")
@@ -48,27 +64,72 @@ public class CatalogPackJob {
             return;
         }
         List<Integer> sizes = parseSizes();
-        List<CatalogVideo> candidates = catalogVideoRepository.findNeedingPrewarm(org.springframework.data.domain.PageRequest.of(0, nightlyCap)).getContent();
-        if (candidates.isEmpty()) {
-            log.info("Pack pre-gen: no candidates");
+        List<DifficultyLevel> difficulties = parseDifficulties();
+        // nightly-cap bounds model calls; packs that are already current cost nothing and are skipped. Work is queued
+        // difficulty by difficulty, NORMAL first, so every video's NORMAL packs (the ones createTest uses) come
+        // before any video's EASIER/HARDER packs. Within a difficulty, pack sets that failed before only get the
+        // cap left over once never-failed work is queued.
+        List<PackWork> work = new ArrayList<>();
+        int current = 0;
+        int backingOff = 0;
+        for (DifficultyLevel difficulty : difficulties) {
+            List<PackWork> retries = new ArrayList<>();
+            int page = 0;
+            Page<CatalogPreparation> preps;
+            do {
+                preps = preparationRepository.findTranscriptReady(PageRequest.of(page++, PAGE_SIZE));
+                for (CatalogPreparation prep : preps) {
+                    if (work.size() >= nightlyCap) {
+                        break;
+                    }
+                    switch (catalogPackService.packState(prep.getCatalogVideo(), prep, sizes, difficulty)) {
+                        case STALE -> work.add(new PackWork(prep, difficulty));
+                        case RETRY -> retries.add(new PackWork(prep, difficulty));
+                        case BACKING_OFF -> backingOff++;
+                        case CURRENT -> current++;
+                    }
+                }
+            } while (preps.hasNext() && work.size() < nightlyCap);
+            retries.stream().limit(Math.max(0, nightlyCap - work.size())).forEach(work::add);
+            if (work.size() >= nightlyCap) {
+                break;
+            }
+        }
+        if (work.isEmpty()) {
+            log.info("Pack pre-gen: no candidates ({} pack set(s) already current, {} backing off after a failure)", current, backingOff);
             return;
         }
-        int processed = 0;
-        for (CatalogVideo v : candidates) {
-            if (processed >= nightlyCap) break;
-            CatalogPreparation prep = preparationRepository.findByCatalogVideo(v).orElse(null);
-            if (prep == null || !Boolean.TRUE.equals(prep.getTranscriptReady())) {
+        // generatePacks records its own failures on the packs, so nothing more to do on give-up.
+        JobPipeline.RunStats stats = pipeline.run("pack-pregen", work,
+                PackWork::label,
+                w -> catalogPackService.generatePacks(w.prep().getCatalogVideo(), w.prep(), sizes, w.difficulty()),
+                (w, e) -> { });
+        log.info("Pack pre-gen complete: generated={} failed={} current={} backingOff={} sizes={} difficulties={}",
+                stats.succeeded(), stats.failed(), current, backingOff, sizes, difficulties);
+    }
+
+    private List<DifficultyLevel> parseDifficulties() {
+        List<DifficultyLevel> parsed = new ArrayList<>();
+        for (String raw : difficultiesConfig.split(",")) {
+            String name = raw.trim().toUpperCase(Locale.ROOT);
+            if (name.isEmpty()) {
                 continue;
             }
-            for (int size : sizes) {
-                try {
-                    catalogPackService.generatePack(v, prep.getTranscript(), size, "NORMAL");
-                } catch (Exception ignored) {
+            try {
+                DifficultyLevel level = DifficultyLevel.valueOf(name);
+                if (!parsed.contains(level)) {
+                    parsed.add(level);
                 }
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown app.pregen.difficulties entry '{}'", raw.trim());
             }
-            processed++;
         }
-        log.info("Pack pre-gen complete: attempted={} sizes={}", processed, sizes);
+        if (parsed.isEmpty()) {
+            return List.of(DifficultyLevel.NORMAL);
+        }
+        // NORMAL first regardless of the configured order: it is the only difficulty new tests start from.
+        parsed.sort(Comparator.comparing(level -> level != DifficultyLevel.NORMAL));
+        return parsed;
     }
 
     private List<Integer> parseSizes() {
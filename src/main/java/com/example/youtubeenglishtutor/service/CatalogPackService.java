@@ -1,5 +1,6 @@
 package com.example.youtubeenglishtutor.service;
 
+import com.example.youtubeenglishtutor.entity.CatalogPreparation;
 import com.example.youtubeenglishtutor.entity.CatalogQuestionPack;
 import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import com.example.youtubeenglishtutor.entity.Question;
@@ -7,12 +8,19 @@ import com.example.youtubeenglishtutor.entity.QuestionType;
 import com.example.youtubeenglishtutor.repository.CatalogQuestionPackRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -22,59 +30,124 @@ public class CatalogPackService {
 
     private final CatalogQuestionPackRepository packRepository;
     private final AiQuestionService aiQuestionService;
+    private final RagService ragService;
     private final ObjectMapper objectMapper;
+    private final QuestionBank questionBank;
+    private final Duration failureBackoff;
 
-    public CatalogPackService(CatalogQuestionPackRepository packRepository, AiQuestionService aiQuestionService, ObjectMapper objectMapper) {
+    /**
+     * Where a video's packs for one difficulty stand, for the nightly job's queue.
+     */
+    public enum PackState {
+        CURRENT,
+        STALE,
+        RETRY, // failed before, but longer ago than the backoff
+        BACKING_OFF
+    }
+
+    public CatalogPackService(
+            CatalogQuestionPackRepository packRepository,
+            AiQuestionService aiQuestionService,
+            RagService ragService,
+            ObjectMapper objectMapper,
+            QuestionBank questionBank,
+            @Value("${app.pregen.failure-backoff-hours:72}") long failureBackoffHours) {
         this.packRepository = packRepository;
         this.aiQuestionService = aiQuestionService;
+        this.ragService = ragService;
         this.objectMapper = objectMapper;
+        this.questionBank = questionBank;
+        this.failureBackoff = Duration.ofHours(Math.max(0, failureBackoffHours));
     }
 
     public Optional<CatalogQuestionPack> findNearestPack(CatalogVideo video, int desiredSize) {
-        List<CatalogQuestionPack> packs = packRepository.findNearest(video, desiredSize);
+        return findNearestPack(video, desiredSize, DifficultyLevel.NORMAL);
+    }
+
+    public Optional<CatalogQuestionPack> findNearestPack(CatalogVideo video, int desiredSize, DifficultyLevel difficulty) {
+        List<CatalogQuestionPack> packs = packRepository.findNearest(video, desiredSize, difficulty.name());
         return packs.stream().findFirst();
     }
 
-    public CatalogQuestionPack generatePack(CatalogVideo video, String transcript, int size, String difficulty) {
-        CatalogQuestionPack pack = packRepository.findFirstByCatalogVideoAndSize(video, size)
-                .orElseGet(CatalogQuestionPack::new);
-        pack.setCatalogVideo(video);
-        pack.setSize(size);
-        pack.setDifficulty(difficulty);
-        pack.setIncludesWriting(true);
+    /**
+     * Brings the video's packs for {@code sizes} up to date with one generation call: packs already built from
+     * the current transcript are skipped, the largest stale size is generated once, and every stale size is
+     * stored as a type-balanced subset of it. Each difficulty has its own packs. Returns the number of model calls
+     * made (0 or 1).
+     */
+    public int generatePacks(CatalogVideo video, CatalogPreparation prep, Collection<Integer> sizes, DifficultyLevel difficulty) {
+        String transcript = prep.getTranscript();
+        String version = ContentHashes.sha256Hex(transcript);
+        Map<Integer, CatalogQuestionPack> stale = stalePacks(video, prep, sizes, difficulty);
+        if (stale.isEmpty()) {
+            log.debug("{} packs for videoId={} sizes={} are current; skipping", difficulty, video.getVideoId(), sizes);
+            return 0;
+        }
+        int largest = stale.keySet().stream().max(Integer::compare).orElseThrow();
         try {
-            List<Question> questions = aiQuestionService.generateQuestionsFromTranscript(
-                    transcript,
-                    DifficultyLevel.NORMAL,
-                    size,
-                    true);
-            if (questions.stream().noneMatch(q -> q.getType() == QuestionType.WRITING)) {
-                // ensure at least one writing question exists
-                Question writing = new Question();
-                writing.setType(QuestionType.WRITING);
-                writing.setText("What is the main idea of this video?");
-                writing.setCorrectAnswer("Summarize the central idea in 2-3 sentences.");
-                questions.add(writing);
-                questions = questions.stream()
-                        .sorted(Comparator.comparingInt(q -> q.getType() == QuestionType.WRITING ? 1 : 0))
-                        .limit(size)
-                        .toList();
+            List<Question> questions = generateQuestions(transcript, largest, difficulty);
+            for (Map.Entry<Integer, CatalogQuestionPack> entry : stale.entrySet()) {
+                CatalogQuestionPack pack = entry.getValue();
+                fill(pack, video, entry.getKey(), difficulty, version);
+                pack.setQuestionsJson(objectMapper.writeValueAsString(subset(questions, entry.getKey())));
+                pack.setCreatedAt(LocalDateTime.now());
+                pack.setLastError(null);
+                pack.setFailedAt(null);
             }
-            String json = objectMapper.writeValueAsString(questions);
-            pack.setQuestionsJson(json);
-            pack.setCreatedAt(LocalDateTime.now());
-            pack.setLastError(null);
-            packRepository.save(pack);
-            log.info("Generated pack size={} for videoId={} (writing included)", size, video.getVideoId());
-            return pack;
+            packRepository.saveAll(stale.values());
+            questionBank.add(video.getVideoId(), transcript, difficulty, questions);
+            log.info("Generated {} packs sizes={} from one {}-question call for videoId={}", difficulty, stale.keySet(), largest, video.getVideoId());
+            return 1;
         } catch (Exception e) {
-            pack.setLastError(e.getMessage());
-            packRepository.save(pack);
-            log.warn("Failed to generate pack size={} for videoId={} msg={}", size, video.getVideoId(), e.getMessage());
-            throw new IllegalStateException("Failed to generate pack", e);
+            stale.forEach((size, pack) -> {
+                fill(pack, video, size, difficulty, pack.getTranscriptVersion());
+                pack.setLastError(e.getMessage());
+                pack.setFailedAt(LocalDateTime.now());
+            });
+            packRepository.saveAll(stale.values());
+            log.warn("Failed to generate {} packs sizes={} for videoId={} msg={}", difficulty, stale.keySet(), video.getVideoId(), e.getMessage());
+            throw new IllegalStateException("Failed to generate packs", e);
         }
     }
 
+    /**
+     * Whether any of the video's packs for {@code sizes} is missing, failed, or built from an older transcript.
+     * Packs that failed within {@code app.pregen.failure-backoff-hours} are left alone, so a video that fails the
+     * same way every night can't keep taking the nightly cap; older failures come back as {@link PackState#RETRY}.
+     */
+    public PackState packState(CatalogVideo video, CatalogPreparation prep, Collection<Integer> sizes, DifficultyLevel difficulty) {
+        Map<Integer, CatalogQuestionPack> stale = stalePacks(video, prep, sizes, difficulty);
+        if (stale.isEmpty()) {
+            return PackState.CURRENT;
+        }
+        LocalDateTime backoffStart = LocalDateTime.now().minus(failureBackoff);
+        boolean failedBefore = false;
+        for (CatalogQuestionPack pack : stale.values()) {
+            if (pack.getLastError() == null) {
+                continue;
+            }
+            if (pack.getFailedAt() != null && pack.getFailedAt().isAfter(backoffStart)) {
+                return PackState.BACKING_OFF;
+            }
+            failedBefore = true;
+        }
+        return failedBefore ? PackState.RETRY : PackState.STALE;
+    }
+
+    private Map<Integer, CatalogQuestionPack> stalePacks(
+            CatalogVideo video, CatalogPreparation prep, Collection<Integer> sizes, DifficultyLevel difficulty) {
+        String version = ContentHashes.sha256Hex(prep.getTranscript());
+        Map<Integer, CatalogQuestionPack> stale = new LinkedHashMap<>();
+        for (int size : sizes.stream().sorted().toList()) {
+            CatalogQuestionPack pack = packRepository.findFirstByCatalogVideoAndSizeAndDifficulty(video, size, difficulty.name())
+                    .orElseGet(CatalogQuestionPack::new);
+            if (!isCurrent(pack, version, prep.getPreparedAt())) {
+                stale.put(size, pack);
+            }
+        }
+        return stale;
+    }
+
     public List<Question> materialize(CatalogQuestionPack pack) {
         try {
             return objectMapper.readValue(pack.getQuestionsJson(), new TypeReference<List<Question>>() {});
@@ -82,5 +155,92 @@ public class CatalogPackService {
             throw new IllegalStateException("Failed to parse question pack", e);
         }
     }
-}
 
+    private List<Question> generateQuestions(String transcript, int size, DifficultyLevel difficulty) {
+        List<Question> questions = new ArrayList<>(aiQuestionService.generateQuestionsFromTranscript(
+                transcript,
+                difficulty,
+                size,
+                true));
+        if (questions.stream().noneMatch(q -> q.getType() == QuestionType.WRITING)) {
+            // ensure at least one writing question exists
+            Question writing = new Question();
+            writing.setType(QuestionType.WRITING);
+            writing.setText("What is the main idea of this video?");
+            writing.setCorrectAnswer("Summarize the central idea in 2-3 sentences.");
+            if (questions.size() >= size) {
+                questions.remove(questions.size() - 1);
+            }
+            questions.add(writing);
+        }
+        // Query vectors travel inside questionsJson so tests built from the pack need no embedding call.
+        ragService.embedQuestions(questions);
+        return questions;
+    }
+
+    /**
+     * A pack is current when it was generated from this transcript version; packs written before versions were
+     * recorded count as current if they are newer than the transcript.
+     */
+    private static boolean isCurrent(CatalogQuestionPack pack, String version, LocalDateTime transcriptPreparedAt) {
+        if (pack.getId() == null || pack.getLastError() != null || pack.getQuestionsJson() == null) {
+            return false;
+        }
+        if (pack.getTranscriptVersion() != null) {
+            return pack.getTranscriptVersion().equals(version);
+        }
+        return pack.getCreatedAt() != null && transcriptPreparedAt != null && pack.getCreatedAt().isAfter(transcriptPreparedAt);
+    }
+
+    private static void fill(CatalogQuestionPack pack, CatalogVideo video, int size, DifficultyLevel difficulty, String version) {
+        pack.setCatalogVideo(video);
+        pack.setSize(size);
+        pack.setDifficulty(difficulty.name());
+        pack.setIncludesWriting(true);
+        pack.setTranscriptVersion(version);
+    }
+
+    /**
+     * Picks {@code size} questions keeping the first WRITING item and spreading the rest round-robin across the
+     * other types (earliest first within a type), so smaller packs keep the full pack's mix. Output keeps the
+     * original order.
+     */
+    static List<Question> subset(List<Question> questions, int size) {
+        if (questions.size() <= size) {
+            return questions;
+        }
+        Map<QuestionType, List<Question>> byType = new LinkedHashMap<>();
+        Question writing = null;
+        for (Question q : questions) {
+            if (q.getType() == QuestionType.WRITING && writing == null) {
+                writing = q;
+            } else if (q.getType() != QuestionType.WRITING) {
+                byType.computeIfAbsent(q.getType(), t -> new ArrayList<>()).add(q);
+            }
+        }
+        List<Question> picked = new ArrayList<>(size);
+        if (writing != null) {
+            picked.add(writing);
+        }
+        int round = 0;
+        while (picked.size() < size) {
+            boolean added = false;
+            for (List<Question> ofType : byType.values()) {
+                if (picked.size() < size && round < ofType.size()) {
+                    picked.add(ofType.get(round));
+                    added = true;
+                }
+            }
+            if (!added) {
+                break;
+            }
+            round++;
+        }
+        Map<Question, Integer> position = new IdentityHashMap<>();
+        for (int i = 0; i < questions.size(); i++) {
+            position.put(questions.get(i), i);
+        }
+        picked.sort(Comparator.comparingInt(position::get));
+        return picked;
+    }
+}
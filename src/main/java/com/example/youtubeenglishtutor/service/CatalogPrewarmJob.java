@@ -14,6 +14,7 @@ public class CatalogPrewarmJob {
     private static final Logger log = LoggerFactory.getLogger(CatalogPrewarmJob.class);
 
     private final CatalogPrewarmService prewarmService;
+    private final JobPipeline pipeline;
 
     @Value("${app.prewarm.enabled:true}")
     private boolean enabled;
@@ -21,8 +22,9 @@ public class CatalogPrewarmJob {
     @Value("${app.prewarm.nightly-cap:10}")
     private int nightlyCap;
 
-    public CatalogPrewarmJob(CatalogPrewarmService prewarmService) {
+    public CatalogPrewarmJob(CatalogPrewarmService prewarmService, JobPipeline pipeline) {
         this.prewarmService = prewarmService;
+        this.pipeline = pipeline;
     }
 
     @Scheduled(cron = "${app.prewarm.cron:0 30 2 * * *}")
@@ -36,10 +38,7 @@ public class CatalogPrewarmJob {
             log.info("Catalog prewarm: no candidates needing work");
             return;
         }
-        log.info("Catalog prewarm: processing {} candidate(s)", candidates.size());
-        for (CatalogVideo v : candidates) {
-            prewarmService.prewarm(v);
-        }
+        pipeline.run("catalog-prewarm", candidates, CatalogVideo::getVideoId, prewarmService::prewarm, prewarmService::recordFailure);
     }
 }
 
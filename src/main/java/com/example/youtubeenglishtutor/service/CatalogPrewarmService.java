@@ -6,6 +6,8 @@ import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import com.example.youtubeenglishtutor.repository.CatalogPreparationRepository;
 import com.example.youtubeenglishtutor.repository.CatalogTranscriptChunkRepository;
 import com.example.youtubeenglishtutor.repository.CatalogVideoRepository;
+import com.example.youtubeenglishtutor.repository.TestRepository;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,24 +29,30 @@ public class CatalogPrewarmService {
     private final CatalogTranscriptChunkRepository chunkRepository;
     private final TranscriptService transcriptService;
     private final EmbeddingService embeddingService;
-
-    @Value("${app.rag.chunk-size:500}")
-    private int chunkSize;
-
-    @Value("${app.rag.chunk-overlap:100}")
-    private int chunkOverlap;
+    private final TestRepository testRepository;
+    private final TranscriptChunker chunker;
+    private final VectorIndexCache indexCache;
+    private final Duration replacedVersionGrace;
 
     public CatalogPrewarmService(
             CatalogVideoRepository catalogVideoRepository,
             CatalogPreparationRepository catalogPreparationRepository,
             CatalogTranscriptChunkRepository chunkRepository,
             TranscriptService transcriptService,
-            EmbeddingService embeddingService) {
+            EmbeddingService embeddingService,
+            TestRepository testRepository,
+            TranscriptChunker chunker,
+            VectorIndexCache indexCache,
+            @Value("${app.prewarm.replaced-version-grace-hours:24}") long replacedVersionGraceHours) {
         this.catalogVideoRepository = catalogVideoRepository;
         this.catalogPreparationRepository = catalogPreparationRepository;
         this.chunkRepository = chunkRepository;
         this.transcriptService = transcriptService;
         this.embeddingService = embeddingService;
+        this.testRepository = testRepository;
+        this.chunker = chunker;
+        this.indexCache = indexCache;
+        this.replacedVersionGrace = Duration.ofHours(Math.max(0, replacedVersionGraceHours));
     }
 
     public List<CatalogVideo> findNeedingPrewarm(int limit) {
@@ -64,58 +72,139 @@ public class CatalogPrewarmService {
             prep.setTranscript(transcript);
             prep.setTranscriptReady(true);
 
-            chunkRepository.deleteByCatalogVideo(video);
-            List<String> parts = chunkTranscript(transcript, chunkSize, chunkOverlap);
-            List<CatalogTranscriptChunk> chunks = new ArrayList<>();
-            for (String part : parts) {
-                CatalogTranscriptChunk chunk = new CatalogTranscriptChunk();
-                chunk.setCatalogVideo(video);
-                chunk.setContent(part);
-                chunk.setEmbedding(toString(embeddingService.embed(part)));
-                chunks.add(chunk);
+            String version = ContentHashes.sha256Hex(transcript);
+            int chunkCount;
+            long existing = chunkRepository.countByCatalogVideoAndTranscriptVersion(video, version);
+            if (existing > 0 && embeddedWithCurrentModel(video, version)) {
+                // Same transcript and embedding model as an existing chunk set: it is immutable, so reuse it as-is.
+                chunkCount = (int) existing;
+            } else {
+                if (existing > 0) {
+                    // Embedding provider/model changed: rebuild the set in place so tests pointing at it follow.
+                    log.info("Re-embedding chunk set {} for videoId={} with model {}", version.substring(0, 12), video.getVideoId(), embeddingService.modelName());
+                    chunkRepository.deleteByCatalogVideoAndTranscriptVersion(video, version);
+                    indexCache.invalidate(RagService.catalogIndexKey(video.getId(), version));
+                }
+                List<TranscriptChunker.Chunk> parts = chunker.chunk(transcript);
+                List<List<Double>> embeddings = embeddingService.embedAll(parts.stream().map(TranscriptChunker.Chunk::text).toList());
+                List<CatalogTranscriptChunk> chunks = new ArrayList<>();
+                for (int i = 0; i < parts.size(); i++) {
+                    CatalogTranscriptChunk chunk = new CatalogTranscriptChunk();
+                    chunk.setCatalogVideo(video);
+                    chunk.setTranscriptVersion(version);
+                    chunk.setStartOffset(parts.get(i).start());
+                    chunk.setEndOffset(parts.get(i).end());
+                    chunk.setEmbeddingVector(EmbeddingCodec.encode(VectorMath.normalized(embeddings.get(i)), embeddingService.modelName()));
+                    chunks.add(chunk);
+                }
+                if (!chunks.isEmpty()) {
+                    chunkRepository.saveAll(chunks);
+                }
+                chunkCount = chunks.size();
             }
-            if (!chunks.isEmpty()) {
-                chunkRepository.saveAll(chunks);
+            if (!version.equals(prep.getTranscriptVersion()) || prep.getVersionChangedAt() == null) {
+                prep.setVersionChangedAt(LocalDateTime.now());
             }
+            prep.setTranscriptVersion(version);
+            removeUnreferencedVersions(prep);
             prep.setEmbeddingsReady(true);
-            prep.setChunkCount(chunks.size());
+            prep.setChunkCount(chunkCount);
             prep.setPreparedAt(LocalDateTime.now());
             prep.setLastError(null);
             catalogPreparationRepository.save(prep);
-            log.info("Prewarm OK videoId={} chunks={} duration={}s", video.getVideoId(), chunks.size(), video.getDurationSeconds());
+            log.info("Prewarm OK videoId={} chunks={} version={} duration={}s", video.getVideoId(), chunkCount, version.substring(0, 12), video.getDurationSeconds());
         } catch (Exception e) {
-            prep.setEmbeddingsReady(false);
-            prep.setPreparedAt(LocalDateTime.now());
-            prep.setLastError(e.getMessage());
-            catalogPreparationRepository.save(prep);
-            log.warn("Prewarm FAILED videoId={} msg={}", video.getVideoId(), e.getMessage());
+            if (TransientFailures.isRetryable(e)) {
+                // Let the caller's JobPipeline retry; it calls recordFailure once it gives up.
+                throw e instanceof RuntimeException re ? re : new IllegalStateException(e.getMessage(), e);
+            }
+            markFailed(prep, e);
         }
     }
 
-    private List<String> chunkTranscript(String transcript, int size, int overlap) {
-        if (!StringUtils.hasText(transcript)) {
-            return List.of();
-        }
-        String normalized = transcript.replaceAll("\\s+", " ").trim();
-        if (normalized.length() <= size) {
-            return List.of(normalized);
+    @Transactional
+    public void recordFailure(CatalogVideo video, Exception e) {
+        CatalogPreparation prep = catalogPreparationRepository.findByCatalogVideo(video)
+                .orElseGet(() -> {
+                    CatalogPreparation p = new CatalogPreparation();
+                    p.setCatalogVideo(video);
+                    return p;
+                });
+        markFailed(prep, e);
+    }
+
+    private void markFailed(CatalogPreparation prep, Exception e) {
+        prep.setEmbeddingsReady(false);
+        prep.setPreparedAt(LocalDateTime.now());
+        prep.setLastError(e.getMessage());
+        catalogPreparationRepository.save(prep);
+        log.warn("Prewarm FAILED videoId={} msg={}", prep.getCatalogVideo().getVideoId(), e.getMessage());
+    }
+
+    /**
+     * Returns the shared chunk-set version for a prepared video, assigning one to chunk sets written before
+     * versioning existed. Returns null when the video has no usable chunk set, including one embedded with a
+     * different model than the current provider; that video is queued for the next prewarm.
+     */
+    @Transactional
+    public String ensureChunkSetVersion(CatalogPreparation prep) {
+        if (prep == null || !Boolean.TRUE.equals(prep.getEmbeddingsReady()) || !StringUtils.hasText(prep.getTranscript())) {
+            return null;
         }
-        int step = Math.max(50, size - overlap);
-        List<String> parts = new java.util.ArrayList<>();
-        for (int start = 0; start < normalized.length(); start += step) {
-            int end = Math.min(normalized.length(), start + size);
-            parts.add(normalized.substring(start, end));
-            if (end == normalized.length()) {
-                break;
+        String version = prep.getTranscriptVersion();
+        if (!StringUtils.hasText(version)) {
+            version = ContentHashes.sha256Hex(prep.getTranscript());
+            int assigned = chunkRepository.assignVersionToUnversioned(prep.getCatalogVideo(), version);
+            if (assigned == 0 && chunkRepository.countByCatalogVideoAndTranscriptVersion(prep.getCatalogVideo(), version) == 0) {
+                return null;
             }
+            prep.setTranscriptVersion(version);
+            catalogPreparationRepository.save(prep);
+            log.info("Assigned chunk-set version {} to {} legacy chunks for videoId={}", version.substring(0, 12), assigned, prep.getCatalogVideo().getVideoId());
         }
-        return parts.stream().filter(p -> !p.isBlank()).toList();
+        if (!embeddedWithCurrentModel(prep.getCatalogVideo(), version)) {
+            log.info("Chunk set {} for videoId={} was not embedded with {}; queued for re-prewarm",
+                    version.substring(0, 12), prep.getCatalogVideo().getVideoId(), embeddingService.modelName());
+            prep.setEmbeddingsReady(false);
+            catalogPreparationRepository.save(prep);
+            return null;
+        }
+        return version;
+    }
+
+    /**
+     * Whether the chunk set's vectors come from the current embedding model (all rows of a set share one).
+     */
+    private boolean embeddedWithCurrentModel(CatalogVideo video, String version) {
+        return chunkRepository.findFirstByCatalogVideoAndTranscriptVersion(video, version)
+                .map(CatalogTranscriptChunk::getEmbeddingVector)
+                .map(stored -> {
+                    try {
+                        return embeddingService.modelName().equals(EmbeddingCodec.model(stored));
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                })
+                .orElse(false);
     }
 
-    private String toString(List<Double> embedding) {
-        return embedding.stream()
-                .map(d -> String.format(java.util.Locale.US, "%.6f", d))
-                .collect(java.util.stream.Collectors.joining(","));
+    /**
+     * Chunk sets are shared by reference from tests, so an old version is only deleted once no test points at it.
+     * A createTest that read the previous version may not have committed yet, so old versions are also kept until
+     * the replacement is older than {@code app.prewarm.replaced-version-grace-hours}.
+     */
+    private void removeUnreferencedVersions(CatalogPreparation prep) {
+        CatalogVideo video = prep.getCatalogVideo();
+        String currentVersion = prep.getTranscriptVersion();
+        boolean graceOver = !prep.getVersionChangedAt().isAfter(LocalDateTime.now().minus(replacedVersionGrace));
+        for (String version : chunkRepository.findVersions(video)) {
+            if (version == null) {
+                chunkRepository.deleteByCatalogVideoAndTranscriptVersionIsNull(video);
+            } else if (!version.equals(currentVersion) && graceOver
+                    && !testRepository.existsByCatalogVideoIdAndChunkSetVersion(video.getId(), version)) {
+                chunkRepository.deleteByCatalogVideoAndTranscriptVersion(video, version);
+            }
+        }
     }
 }
 
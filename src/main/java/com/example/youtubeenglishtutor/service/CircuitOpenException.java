@@ -0,0 +1,14 @@
+package com.example.youtubeenglishtutor.service;
+
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Thrown without contacting the upstream while its circuit breaker is open. It is a
+ * {@link ResourceAccessException}, so callers that retry I/O failures back off and try again later.
+ */
+public class CircuitOpenException extends ResourceAccessException {
+
+    public CircuitOpenException(String endpoint) {
+        super("Circuit open for " + endpoint + "; upstream is failing, call not attempted");
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * Scores a batch of query vectors against a row-major matrix of L2-normalized vectors (dot product == cosine).
+ */
+public interface DotProductKernel {
+
+    /**
+     * Fills {@code out[q][row]} with the dot product of {@code queries[q]} and matrix row {@code row}. The matrix is
+     * read once, row by row, with every query scored against a row while it is hot in cache.
+     */
+    void dotAll(float[][] queries, float[] matrix, int rows, int dimension, float[][] out);
+
+    String name();
+}
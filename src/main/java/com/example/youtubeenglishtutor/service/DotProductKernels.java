@@ -0,0 +1,52 @@
+package com.example.youtubeenglishtutor.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Picks the fastest available {@link DotProductKernel} once per JVM; {@link #forName} lets configuration
+ * ({@code app.rag.vector-kernel}) force the scalar fallback.
+ */
+public final class DotProductKernels {
+
+    private static final Logger log = LoggerFactory.getLogger(DotProductKernels.class);
+
+    private static final DotProductKernel DEFAULT = select();
+
+    private DotProductKernels() {
+    }
+
+    public static DotProductKernel get() {
+        return DEFAULT;
+    }
+
+    public static DotProductKernel scalar() {
+        return new ScalarDotProductKernel();
+    }
+
+    /**
+     * {@code scalar} forces the fallback; anything else ({@code auto}) uses the fastest available kernel.
+     */
+    public static DotProductKernel forName(String name) {
+        if ("scalar".equalsIgnoreCase(name == null ? null : name.trim())) {
+            log.info("Vector scoring kernel forced to scalar");
+            return scalar();
+        }
+        return get();
+    }
+
+    private static DotProductKernel select() {
+        try {
+            DotProductKernel kernel = (DotProductKernel) Class.forName("com.example.youtubeenglishtutor.service.PanamaDotProductKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            // Exercise it once so a missing module fails here, not on a user request.
+            kernel.dotAll(new float[][] {{1f}}, new float[] {1f}, 1, 1, new float[1][1]);
+            log.info("Vector scoring kernel: {}", kernel.name());
+            return kernel;
+        } catch (Throwable t) {
+            log.info("Vector API unavailable ({}); using scalar scoring kernel", t.getClass().getSimpleName());
+            return scalar();
+        }
+    }
+}
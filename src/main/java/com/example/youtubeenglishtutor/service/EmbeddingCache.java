@@ -0,0 +1,255 @@
+package com.example.youtubeenglishtutor.service;
+
+import com.example.youtubeenglishtutor.entity.EmbeddingCacheEntry;
+import com.example.youtubeenglishtutor.repository.EmbeddingCacheRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Two-tier cache of embedding vectors keyed by (model, SHA-256 of normalized text): a bounded in-process LRU in
+ * front of the {@code embedding_cache} table. Vectors are held as float32, matching chunk storage.
+ */
+@Component
+public class EmbeddingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    public record Stats(
+            long memoryHits,
+            long memoryMisses,
+            long dbHits,
+            long dbMisses,
+            long stored,
+            int memoryEntries,
+            int memoryCapacity
+    ) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("memoryHits", memoryHits);
+            map.put("memoryMisses", memoryMisses);
+            map.put("memoryHitRate", rate(memoryHits, memoryMisses));
+            map.put("dbHits", dbHits);
+            map.put("dbMisses", dbMisses);
+            map.put("dbHitRate", rate(dbHits, dbMisses));
+            map.put("stored", stored);
+            map.put("memoryEntries", memoryEntries);
+            map.put("memoryCapacity", memoryCapacity);
+            return map;
+        }
+
+        private static double rate(long hits, long misses) {
+            return hits + misses == 0 ? 0.0 : (double) hits / (double) (hits + misses);
+        }
+    }
+
+    private final EmbeddingCacheRepository repository;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final int memoryCapacity;
+    private final LinkedHashMap<String, float[]> memory;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong memoryMisses = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong dbMisses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+
+    public EmbeddingCache(
+            EmbeddingCacheRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.embedding-cache.enabled:true}") boolean enabled,
+            @Value("${app.embedding-cache.memory-entries:5000}") int memoryCapacity) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.memoryCapacity = Math.max(0, memoryCapacity);
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > EmbeddingCache.this.memoryCapacity;
+            }
+        };
+        // Cache writes must never roll back (or be rolled back by) the caller's transaction.
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Looks up every text; the result has one slot per input, {@code null} where neither tier has a vector.
+     */
+    public List<float[]> getAll(String model, List<String> texts) {
+        List<float[]> found = new ArrayList<>(texts.size());
+        Map<String, List<Integer>> missingSlotsByHash = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String hash = hash(texts.get(i));
+            float[] vector;
+            synchronized (memory) {
+                vector = memory.get(memoryKey(model, hash));
+            }
+            if (vector != null) {
+                memoryHits.incrementAndGet();
+            } else {
+                memoryMisses.incrementAndGet();
+                missingSlotsByHash.computeIfAbsent(hash, k -> new ArrayList<>()).add(i);
+            }
+            found.add(vector);
+        }
+        if (missingSlotsByHash.isEmpty()) {
+            return found;
+        }
+        try {
+            Set<String> remaining = new LinkedHashSet<>(missingSlotsByHash.keySet());
+            for (EmbeddingCacheEntry entry : repository.findByModelAndTextHashIn(model, missingSlotsByHash.keySet())) {
+                float[] vector = EmbeddingCodec.decode(entry.getEmbeddingVector());
+                remember(model, entry.getTextHash(), vector);
+                for (int slot : missingSlotsByHash.get(entry.getTextHash())) {
+                    found.set(slot, vector);
+                }
+                remaining.remove(entry.getTextHash());
+            }
+            dbHits.addAndGet(missingSlotsByHash.size() - remaining.size());
+            dbMisses.addAndGet(remaining.size());
+        } catch (Exception e) {
+            log.warn("Embedding cache lookup failed; treating as miss: {}", e.getMessage());
+        }
+        return found;
+    }
+
+    /**
+     * Stores freshly computed vectors in both tiers. Hashes already persisted are skipped; if a concurrent writer
+     * (another learner, the prewarm job) inserts one of the rest first, the batch is retried row by row so only
+     * the conflicting rows are lost. The caller already has its vectors either way.
+     */
+    public void putAll(String model, List<String> texts, List<float[]> vectors) {
+        Map<String, float[]> byHash = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            byHash.putIfAbsent(hash(texts.get(i)), vectors.get(i));
+        }
+        byHash.forEach((hash, vector) -> remember(model, hash, vector));
+        try {
+            repository.findByModelAndTextHashIn(model, byHash.keySet())
+                    .forEach(existing -> byHash.remove(existing.getTextHash()));
+        } catch (Exception e) {
+            log.warn("Embedding cache existence check failed for model={}: {}", model, e.getMessage());
+        }
+        if (byHash.isEmpty()) {
+            return;
+        }
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                List<EmbeddingCacheEntry> entries = new ArrayList<>(byHash.size());
+                byHash.forEach((hash, vector) -> entries.add(newEntry(model, hash, vector)));
+                repository.saveAll(entries);
+            });
+            stored.addAndGet(byHash.size());
+        } catch (Exception e) {
+            log.warn("Embedding cache batch write of {} entries failed ({}); retrying row by row", byHash.size(), e.getMessage());
+            putEach(model, byHash);
+        }
+    }
+
+    private void putEach(String model, Map<String, float[]> byHash) {
+        int skipped = 0;
+        for (Map.Entry<String, float[]> e : byHash.entrySet()) {
+            try {
+                writeTransaction.executeWithoutResult(status -> repository.save(newEntry(model, e.getKey(), e.getValue())));
+                stored.incrementAndGet();
+            } catch (Exception ex) {
+                skipped++;
+            }
+        }
+        if (skipped > 0) {
+            log.warn("Embedding cache skipped {} of {} entries for model={} (already stored concurrently or write failed)",
+                    skipped, byHash.size(), model);
+        }
+    }
+
+    private static EmbeddingCacheEntry newEntry(String model, String hash, float[] vector) {
+        EmbeddingCacheEntry entry = new EmbeddingCacheEntry();
+        entry.setModel(model);
+        entry.setTextHash(hash);
+        entry.setEmbeddingVector(EmbeddingCodec.encode(vector, model));
+        return entry;
+    }
+
+    /**
+     * Clears the memory tier and deletes persisted entries (all models when {@code model} is null).
+     */
+    public int purge(String model) {
+        synchronized (memory) {
+            if (model == null) {
+                memory.clear();
+            } else {
+                memory.keySet().removeIf(key -> key.startsWith(model + "|"));
+            }
+        }
+        int deleted = model == null ? repository.deleteAllEntries() : repository.deleteByModel(model);
+        log.info("Embedding cache purged model={} rows={}", model != null ? model : "ALL", deleted);
+        return deleted;
+    }
+
+    public Stats stats() {
+        int entries;
+        synchronized (memory) {
+            entries = memory.size();
+        }
+        return new Stats(memoryHits.get(), memoryMisses.get(), dbHits.get(), dbMisses.get(), stored.get(), entries, memoryCapacity);
+    }
+
+    /**
+     * Whitespace-collapsed, trimmed, NFC-normalized text; case is preserved because it affects the embedding.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String nfc = Normalizer.normalize(text, Normalizer.Form.NFC);
+        StringBuilder sb = new StringBuilder(nfc.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < nfc.length(); i++) {
+            char c = nfc.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    static String hash(String text) {
+        return ContentHashes.sha256Hex(normalize(text));
+    }
+
+    private void remember(String model, String hash, float[] vector) {
+        if (memoryCapacity == 0) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(memoryKey(model, hash), vector);
+        }
+    }
+
+    private String memoryKey(String model, String hash) {
+        return model + "|" + hash;
+    }
+}
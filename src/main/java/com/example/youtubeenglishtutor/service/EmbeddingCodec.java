@@ -0,0 +1,114 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.springframework.util.StringUtils;
+
+/**
+ * Binary storage format for chunk embeddings shared by {@code transcript_chunks} and
+ * {@code catalog_transcript_chunks}.
+ *
+ * <pre>
+ * byte 0      magic 'V'
+ * byte 1      format version
+ * bytes 2-5   dimension (int32, little-endian)
+ * byte 6      model name length (0-255)
+ * bytes 7..   model name (UTF-8), then dimension x float32 (little-endian)
+ * </pre>
+ */
+public final class EmbeddingCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private static final byte MAGIC = 'V';
+    private static final int FIXED_HEADER_BYTES = 7;
+
+    private EmbeddingCodec() {
+    }
+
+    public static byte[] encode(List<Double> vector, String model) {
+        float[] values = new float[vector.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = vector.get(i).floatValue();
+        }
+        return encode(values, model);
+    }
+
+    public static byte[] encode(float[] vector, String model) {
+        byte[] modelBytes = model != null ? model.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (modelBytes.length > 255) {
+            throw new IllegalArgumentException("Embedding model name too long: " + model);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_HEADER_BYTES + modelBytes.length + vector.length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(vector.length);
+        buffer.put((byte) modelBytes.length);
+        buffer.put(modelBytes);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    public static float[] decode(byte[] stored) {
+        if (stored == null || stored.length == 0) {
+            return new float[0];
+        }
+        ByteBuffer buffer = header(stored);
+        int dimension = buffer.getInt(2);
+        int payloadOffset = FIXED_HEADER_BYTES + Byte.toUnsignedInt(buffer.get(6));
+        if (stored.length != payloadOffset + dimension * Float.BYTES) {
+            throw new IllegalArgumentException("Corrupt embedding: expected " + dimension + " floats");
+        }
+        float[] vector = new float[dimension];
+        buffer.position(payloadOffset);
+        buffer.asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public static int dimension(byte[] stored) {
+        if (stored == null || stored.length == 0) {
+            return 0;
+        }
+        return header(stored).getInt(2);
+    }
+
+    public static String model(byte[] stored) {
+        if (stored == null || stored.length == 0) {
+            return null;
+        }
+        int length = Byte.toUnsignedInt(header(stored).get(6));
+        return new String(stored, FIXED_HEADER_BYTES, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses the pre-binary comma-separated text format; only used when migrating old rows.
+     */
+    public static float[] parseLegacy(String stored) {
+        if (!StringUtils.hasText(stored)) {
+            return new float[0];
+        }
+        String[] parts = stored.split(",");
+        float[] vector = new float[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                vector[count++] = Float.parseFloat(trimmed);
+            }
+        }
+        return count == vector.length ? vector : java.util.Arrays.copyOf(vector, count);
+    }
+
+    private static ByteBuffer header(byte[] stored) {
+        if (stored.length < FIXED_HEADER_BYTES || stored[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary embedding");
+        }
+        if (stored[1] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported embedding format version " + stored[1]);
+        }
+        return ByteBuffer.wrap(stored).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -4,4 +4,13 @@ import java.util.List;
 
 public interface EmbeddingService {
     List<Double> embed(String text);
+
+    /**
+     * Embeds several texts, preserving input order. Implementations should batch into as few requests as possible.
+     */
+    default List<List<Double>> embedAll(List<String> texts) {
+        return texts.stream().map(this::embed).toList();
+    }
+
+    String modelName();
 }
@@ -0,0 +1,155 @@
+package com.example.youtubeenglishtutor.service;
+
+import com.example.youtubeenglishtutor.entity.GenerationCacheEntry;
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.repository.GenerationCacheRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Persistent cache of generated question sets keyed by (transcript hash, model, difficulty, count,
+ * includeWriting). Up to {@code variants} sets are kept per key: until that many exist a lookup misses so a new
+ * variant gets generated, after which lookups rotate through them least-recently-served first. Entries older
+ * than {@code ttl-hours} are ignored and removed on the next store for the key.
+ */
+@Component
+public class GenerationCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationCache.class);
+
+    public record Stats(long hits, long misses, long variantFills, long stored, int variants, long ttlHours) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("hits", hits);
+            map.put("misses", misses);
+            map.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (double) (hits + misses));
+            map.put("variantFills", variantFills);
+            map.put("stored", stored);
+            map.put("variants", variants);
+            map.put("ttlHours", ttlHours);
+            return map;
+        }
+    }
+
+    private final GenerationCacheRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int variants;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong variantFills = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+
+    public GenerationCache(
+            GenerationCacheRepository repository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.generation-cache.enabled:true}") boolean enabled,
+            @Value("${app.generation-cache.ttl-hours:168}") long ttlHours,
+            @Value("${app.generation-cache.variants:2}") int variants) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = Duration.ofHours(Math.max(1, ttlHours));
+        this.variants = Math.max(1, variants);
+        // Like EmbeddingCache: cache bookkeeping must not roll back (or be rolled back by) the caller's transaction.
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns a cached question set, or empty when the key has fewer than {@code variants} unexpired sets (the
+     * caller should generate one and {@link #store} it). Returned questions are fresh, unsaved entities.
+     */
+    public Optional<List<Question>> lookup(String transcript, String model, DifficultyLevel difficulty, int count, boolean includeWriting) {
+        if (!enabled || transcript == null) {
+            return Optional.empty();
+        }
+        String key = key(ContentHashes.sha256Hex(transcript), model, difficulty, count, includeWriting);
+        try {
+            List<GenerationCacheEntry> fresh = repository.findFresh(key, LocalDateTime.now().minus(ttl));
+            if (fresh.size() < variants) {
+                misses.incrementAndGet();
+                if (!fresh.isEmpty()) {
+                    variantFills.incrementAndGet();
+                }
+                return Optional.empty();
+            }
+            GenerationCacheEntry entry = fresh.get(0);
+            List<Question> questions = objectMapper.readValue(entry.getQuestionsJson(), new TypeReference<List<Question>>() {});
+            entry.setLastServedAt(LocalDateTime.now());
+            entry.setServedCount(entry.getServedCount() == null ? 1 : entry.getServedCount() + 1);
+            writeTransaction.executeWithoutResult(status -> repository.save(entry));
+            hits.incrementAndGet();
+            log.info("Generation cache hit key={} variant={} served={}", key.substring(0, 12), entry.getId(), entry.getServedCount());
+            return Optional.of(questions);
+        } catch (Exception e) {
+            misses.incrementAndGet();
+            log.warn("Generation cache lookup failed; treating as miss: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a freshly generated set as a new variant. Must be called before the questions are attached to a
+     * test. Failures are logged and ignored.
+     */
+    public void store(String transcript, String model, DifficultyLevel difficulty, int count, boolean includeWriting, List<Question> questions) {
+        if (!enabled || transcript == null || questions.isEmpty()) {
+            return;
+        }
+        String transcriptHash = ContentHashes.sha256Hex(transcript);
+        String key = key(transcriptHash, model, difficulty, count, includeWriting);
+        try {
+            GenerationCacheEntry entry = new GenerationCacheEntry();
+            entry.setCacheKey(key);
+            entry.setTranscriptHash(transcriptHash);
+            entry.setModel(model);
+            entry.setDifficulty(difficultyName(difficulty));
+            entry.setQuestionCount(count);
+            entry.setIncludesWriting(includeWriting);
+            entry.setQuestionsJson(objectMapper.writeValueAsString(questions));
+            writeTransaction.executeWithoutResult(status -> {
+                repository.deleteExpired(key, LocalDateTime.now().minus(ttl));
+                repository.save(entry);
+            });
+            stored.incrementAndGet();
+        } catch (Exception e) {
+            log.debug("Generation cache write skipped for key={}: {}", key.substring(0, 12), e.getMessage());
+        }
+    }
+
+    public int purge() {
+        int deleted = repository.deleteAllEntries();
+        log.info("Generation cache purged rows={}", deleted);
+        return deleted;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.get(), misses.get(), variantFills.get(), stored.get(), variants, ttl.toHours());
+    }
+
+    static String key(String transcriptHash, String model, DifficultyLevel difficulty, int count, boolean includeWriting) {
+        return ContentHashes.sha256Hex(transcriptHash + "|" + model + "|" + difficultyName(difficulty) + "|" + count + "|" + includeWriting);
+    }
+
+    private static String difficultyName(DifficultyLevel difficulty) {
+        return (difficulty != null ? difficulty : DifficultyLevel.NORMAL).name();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * Symmetric per-vector int8 scalar quantization: {@code v[i] ~= code[i] * scale} with
+ * {@code scale = max|v| / 127}. A unit-length 1536-d vector shrinks from 6 KB to 1.5 KB plus one float.
+ */
+final class Int8Quantizer {
+
+    private Int8Quantizer() {
+    }
+
+    /**
+     * Writes the codes for {@code vector} into {@code codes} at {@code offset} and returns the scale.
+     */
+    static float quantize(float[] vector, byte[] codes, int offset) {
+        float maxAbs = 0f;
+        for (float v : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(v));
+        }
+        if (maxAbs == 0f) {
+            return 0f;
+        }
+        float scale = maxAbs / 127f;
+        float inv = 1f / scale;
+        for (int i = 0; i < vector.length; i++) {
+            codes[offset + i] = (byte) Math.max(-127, Math.min(127, Math.round(vector[i] * inv)));
+        }
+        return scale;
+    }
+
+    /**
+     * Approximate dot products of float queries against every quantized row, rows outer like
+     * {@link DotProductKernel#dotAll}.
+     */
+    static void dotAll(float[][] queries, byte[] codes, float[] scales, int rows, int dimension, float[][] out) {
+        for (int row = 0; row < rows; row++) {
+            int offset = row * dimension;
+            for (int q = 0; q < queries.length; q++) {
+                out[q][row] = dot(queries[q], codes, offset, dimension) * scales[row];
+            }
+        }
+    }
+
+    static float dot(float[] query, byte[] codes, int offset, int dimension) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int upper = dimension & ~3;
+        for (; i < upper; i += 4) {
+            s0 += query[i] * codes[offset + i];
+            s1 += query[i + 1] * codes[offset + i + 1];
+            s2 += query[i + 2] * codes[offset + i + 2];
+            s3 += query[i + 3] * codes[offset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += query[i] * codes[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    static float codeDot(byte[] codes, int aOffset, int bOffset, int dimension) {
+        int sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += codes[aOffset + i] * codes[bOffset + i];
+        }
+        return sum;
+    }
+}
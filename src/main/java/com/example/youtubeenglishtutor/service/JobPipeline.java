@@ -0,0 +1,171 @@
+package com.example.youtubeenglishtutor.service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the nightly catalog jobs' per-video work on a bounded worker pool. Transient failures (429, 5xx, I/O) are
+ * retried with jittered exponential backoff, honouring Retry-After; OpenAI request pacing itself is left to
+ * {@link OpenAiRateLimiter}. Outbound HTTP retries are switched off while a task runs, so an item makes at most
+ * {@code app.pipeline.max-attempts} upstream calls per request. The last run of each job is kept for the admin
+ * endpoints.
+ */
+@Component
+public class JobPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(JobPipeline.class);
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    @FunctionalInterface
+    public interface Task<T> {
+        void run(T item) throws Exception;
+    }
+
+    public record RunStats(
+            String job,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            int items,
+            int succeeded,
+            int failed,
+            int retries,
+            long durationMs,
+            String lastError
+    ) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("job", job);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("items", items);
+            map.put("succeeded", succeeded);
+            map.put("failed", failed);
+            map.put("retries", retries);
+            map.put("durationMs", durationMs);
+            map.put("itemsPerMinute", durationMs == 0 ? 0.0 : items * 60_000.0 / durationMs);
+            map.put("lastError", lastError);
+            return map;
+        }
+    }
+
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final Map<String, RunStats> lastRuns = new ConcurrentHashMap<>();
+
+    public JobPipeline(
+            @Value("${app.pipeline.workers:4}") int workers,
+            @Value("${app.pipeline.max-attempts:4}") int maxAttempts,
+            @Value("${app.pipeline.backoff-ms:2000}") long backoffMillis) {
+        this.workerCount = Math.max(1, workers);
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+    }
+
+    /**
+     * Processes every item and blocks until all are done. {@code onGiveUp} is called for an item whose last
+     * attempt failed (e.g. to record the error); one item's failure never stops the others.
+     */
+    public <T> RunStats run(String job, List<T> items, Function<T, String> label, Task<T> task, BiConsumer<T, Exception> onGiveUp) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        AtomicReference<String> lastError = new AtomicReference<>();
+        log.info("{}: processing {} item(s) with {} worker(s)", job, items.size(), workerCount);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int attempt = 1; ; attempt++) {
+                    // The pipeline owns retries here; one HTTP attempt per try keeps the upstream call count bounded.
+                    try (ResilientHttpInterceptor.Scope ignored = ResilientHttpInterceptor.singleAttempt()) {
+                        task.run(item);
+                        succeeded.incrementAndGet();
+                        return;
+                    } catch (Exception e) {
+                        if (attempt < maxAttempts && TransientFailures.isRetryable(e) && !Thread.currentThread().isInterrupted()) {
+                            long delay = backoff(attempt, TransientFailures.retryAfterMillis(e));
+                            retries.incrementAndGet();
+                            log.info("{}: {} failed transiently (attempt {}/{}), retrying in {} ms: {}",
+                                    job, label.apply(item), attempt, maxAttempts, delay, e.getMessage());
+                            if (sleep(delay)) {
+                                continue;
+                            }
+                        }
+                        failed.incrementAndGet();
+                        lastError.set(label.apply(item) + ": " + e.getMessage());
+                        log.warn("{}: {} failed after {} attempt(s): {}", job, label.apply(item), attempt, e.getMessage());
+                        try {
+                            onGiveUp.accept(item, e);
+                        } catch (Exception recordFailure) {
+                            log.warn("{}: could not record failure for {}: {}", job, label.apply(item), recordFailure.getMessage());
+                        }
+                        return;
+                    }
+                }
+            }, workers));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        RunStats stats = new RunStats(job, startedAt, LocalDateTime.now(), items.size(), succeeded.get(), failed.get(),
+                retries.get(), (System.nanoTime() - start) / 1_000_000, lastError.get());
+        lastRuns.put(job, stats);
+        log.info("{}: done items={} succeeded={} failed={} retries={} in {} ms",
+                job, stats.items(), stats.succeeded(), stats.failed(), stats.retries(), stats.durationMs());
+        return stats;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("workers", workerCount);
+        map.put("maxAttempts", maxAttempts);
+        Map<String, Object> runs = new LinkedHashMap<>();
+        lastRuns.forEach((job, run) -> runs.put(job, run.toMap()));
+        map.put("lastRuns", runs);
+        return map;
+    }
+
+    /**
+     * Exponential backoff with jitter (between half and all of {@code backoff-ms * 2^(attempt-1)}, capped at a
+     * minute), or the server's Retry-After when it asked for longer.
+     */
+    long backoff(int attempt, long retryAfterMillis) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, backoffMillis << Math.min(attempt - 1, 20));
+        long jittered = ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        return Math.max(jittered, Math.min(MAX_BACKOFF_MS, retryAfterMillis));
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
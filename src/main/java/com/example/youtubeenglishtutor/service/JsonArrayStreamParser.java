@@ -0,0 +1,79 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental splitter for a streamed JSON array of objects: feed it text fragments as they arrive and it
+ * hands each top-level object's complete JSON to the consumer as soon as its closing brace is seen. Anything
+ * outside the array (e.g. a Markdown code fence) is ignored. Tracks only nesting depth and string/escape
+ * state, so each character is looked at once.
+ */
+final class JsonArrayStreamParser {
+
+    private final Consumer<String> onObject;
+    private final StringBuilder current = new StringBuilder();
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean arrayClosed;
+    private int objects;
+
+    JsonArrayStreamParser(Consumer<String> onObject) {
+        this.onObject = onObject;
+    }
+
+    void feed(CharSequence fragment) {
+        for (int i = 0; i < fragment.length() && !arrayClosed; i++) {
+            char c = fragment.charAt(i);
+            if (depth >= 2) {
+                current.append(c);
+            }
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = depth > 0;
+                case '[', '{' -> {
+                    if (depth == 0 && c == '{') {
+                        continue; // not an array; the caller falls back to a full parse
+                    }
+                    if (depth == 1 && c == '{') {
+                        current.setLength(0);
+                        current.append(c);
+                    }
+                    depth++;
+                }
+                case ']', '}' -> {
+                    if (depth == 0) {
+                        continue;
+                    }
+                    depth--;
+                    if (depth == 1 && c == '}') {
+                        objects++;
+                        onObject.accept(current.toString());
+                        current.setLength(0);
+                    } else if (depth == 0) {
+                        arrayClosed = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    int objectCount() {
+        return objects;
+    }
+
+    boolean isComplete() {
+        return arrayClosed;
+    }
+}
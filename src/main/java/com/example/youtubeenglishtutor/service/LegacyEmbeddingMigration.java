@@ -0,0 +1,107 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts chunk embeddings stored in the old comma-separated {@code embedding TEXT} column into the
+ * binary {@code embedding_vector} column (see {@link EmbeddingCodec}). Runs once per startup, in batches,
+ * and is a no-op when the legacy column is absent or already drained. The legacy column can be dropped
+ * once this has logged zero remaining rows (see db/postgres-schema.sql).
+ */
+@Component
+public class LegacyEmbeddingMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyEmbeddingMigration.class);
+
+    private static final List<String> TABLES = List.of("transcript_chunks", "catalog_transcript_chunks");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    @Value("${app.rag.migrate-legacy-embeddings:true}")
+    private boolean enabled;
+
+    @Value("${app.rag.migration-batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.openai.embedding-model:text-embedding-3-small}")
+    private String legacyModel;
+
+    public LegacyEmbeddingMigration(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        for (String table : TABLES) {
+            try {
+                if (!hasColumn(table, "embedding") || !hasColumn(table, "embedding_vector")) {
+                    continue;
+                }
+                int converted = migrateTable(table);
+                if (converted > 0) {
+                    log.info("Migrated {} legacy text embeddings in {} to binary", converted, table);
+                }
+            } catch (Exception e) {
+                log.warn("Legacy embedding migration failed for {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    private int migrateTable(String table) {
+        String select = "select id, embedding from " + table
+                + " where embedding is not null and embedding_vector is null order by id limit " + Math.max(1, batchSize);
+        String update = "update " + table + " set embedding_vector = ?, embedding = null where id = ?";
+        int total = 0;
+        while (true) {
+            List<Object[]> batch = jdbcTemplate.query(select, (rs, rowNum) -> {
+                float[] vector;
+                try {
+                    vector = EmbeddingCodec.parseLegacy(rs.getString("embedding"));
+                } catch (NumberFormatException e) {
+                    // Unreadable rows become empty vectors so they never block the batch again.
+                    vector = new float[0];
+                }
+                return new Object[] {EmbeddingCodec.encode(VectorMath.normalize(vector), legacyModel), rs.getLong("id")};
+            });
+            if (batch.isEmpty()) {
+                return total;
+            }
+            jdbcTemplate.batchUpdate(update, batch);
+            total += batch.size();
+        }
+    }
+
+    private boolean hasColumn(String table, String column) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            // Postgres reports lower-case identifiers, H2 upper-case.
+            for (String t : List.of(table, table.toUpperCase(Locale.ROOT))) {
+                for (String c : List.of(column, column.toUpperCase(Locale.ROOT))) {
+                    try (ResultSet rs = meta.getColumns(null, null, t, c)) {
+                        if (rs.next()) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Offline embedding provider: signed feature hashing of character n-grams (with word-boundary padding) into a
+ * fixed number of buckets, L2-normalized. Deterministic across runs and JVMs, no network, microseconds per
+ * text. Retrieval quality is lexical-ish; use it for local runs and load tests, not production ranking.
+ *
+ * Enable with {@code app.embedding.provider=local}.
+ */
+@Service
+@ConditionalOnProperty(name = "app.embedding.provider", havingValue = "local")
+public class LocalEmbeddingService implements EmbeddingService {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int dimension;
+    private final int minN;
+    private final int maxN;
+
+    public LocalEmbeddingService(
+            @Value("${app.embedding.local.dimension:384}") int dimension,
+            @Value("${app.embedding.local.min-ngram:3}") int minN,
+            @Value("${app.embedding.local.max-ngram:5}") int maxN) {
+        this.dimension = Math.max(8, dimension);
+        this.minN = Math.max(1, minN);
+        this.maxN = Math.max(this.minN, maxN);
+    }
+
+    @Override
+    public List<Double> embed(String text) {
+        float[] vector = VectorMath.normalize(vectorize(text));
+        List<Double> values = new ArrayList<>(vector.length);
+        for (float v : vector) {
+            values.add((double) v);
+        }
+        return values;
+    }
+
+    @Override
+    public String modelName() {
+        return "local-ngram-" + minN + "-" + maxN + "-d" + dimension;
+    }
+
+    float[] vectorize(String text) {
+        float[] vector = new float[dimension];
+        if (text == null || text.isBlank()) {
+            return vector;
+        }
+        byte[] padded = (" " + EmbeddingCache.normalize(text).toLowerCase(Locale.ROOT) + " ").getBytes(StandardCharsets.UTF_8);
+        for (int n = minN; n <= maxN; n++) {
+            for (int start = 0; start + n <= padded.length; start++) {
+                long hash = FNV_OFFSET ^ n;
+                for (int i = start; i < start + n; i++) {
+                    hash ^= padded[i] & 0xff;
+                    hash *= FNV_PRIME;
+                }
+                int bucket = (int) Long.remainderUnsigned(hash, dimension);
+                // The top bit picks the sign so colliding n-grams tend to cancel rather than pile up.
+                vector[bucket] += hash < 0 ? -1f : 1f;
+            }
+        }
+        return vector;
+    }
+}
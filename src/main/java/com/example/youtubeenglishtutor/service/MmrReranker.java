@@ -0,0 +1,51 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.Arrays;
+
+/**
+ * Maximal marginal relevance over a relevance-ordered candidate list: each pick maximizes
+ * {@code lambda * relevance - (1 - lambda) * max similarity to anything already picked}, with similarity taken
+ * from {@link VectorIndex#rowSimilarity}.
+ */
+final class MmrReranker {
+
+    private MmrReranker() {
+    }
+
+    static int[] rerank(VectorIndex index, int[] candidates, float[] relevance, int k, double lambda) {
+        int n = candidates.length;
+        int limit = Math.min(k, n);
+        if (limit <= 1) {
+            return limit == 1 ? new int[] {candidates[0]} : new int[0];
+        }
+        int[] selected = new int[limit];
+        boolean[] taken = new boolean[n];
+        // Highest similarity of each candidate to the picks so far.
+        float[] maxSimilarity = new float[n];
+        Arrays.fill(maxSimilarity, -1f);
+        for (int pick = 0; pick < limit; pick++) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < n; c++) {
+                if (taken[c]) {
+                    continue;
+                }
+                double penalty = pick == 0 ? 0 : maxSimilarity[c];
+                double score = lambda * relevance[candidates[c]] - (1 - lambda) * penalty;
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = c;
+                }
+            }
+            taken[best] = true;
+            selected[pick] = candidates[best];
+            for (int c = 0; c < n; c++) {
+                if (!taken[c]) {
+                    float sim = index.rowSimilarity(candidates[best], candidates[c]);
+                    maxSimilarity[c] = Math.max(maxSimilarity[c], sim);
+                }
+            }
+        }
+        return selected;
+    }
+}
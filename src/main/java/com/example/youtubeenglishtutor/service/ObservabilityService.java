@@ -6,6 +6,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -97,6 +98,32 @@ public class ObservabilityService {
         persistQuietly(event);
     }
 
+    /**
+     * One event for a whole result page: {@code topKByQuestion} maps question id to its ranked chunks.
+     */
+    @Transactional
+    public void logBatchRetrievalEvent(
+            String learnerId,
+            Long testId,
+            Map<Long, List<Map<String, Object>>> topKByQuestion,
+            long latencyMs,
+            boolean emptyRetrieval,
+            String strategy) {
+        ObservabilityEvent event = new ObservabilityEvent();
+        event.setLearnerId(learnerId);
+        event.setTestId(testId);
+        event.setQuestionId(topKByQuestion.size() == 1 ? topKByQuestion.keySet().iterator().next() : null);
+        event.setEventType("RETRIEVAL");
+        event.setLatencyMs(latencyMs);
+        event.setRetrievalEmpty(emptyRetrieval);
+        event.setPayload(toJson(Map.of(
+                "strategy", strategy,
+                "questions", topKByQuestion.size(),
+                "topK", topKByQuestion
+        )));
+        persistQuietly(event);
+    }
+
     @Transactional
     public void logJudgeEvent(
             String learnerId,
@@ -116,6 +143,31 @@ public class ObservabilityService {
         persistQuietly(event);
     }
 
+    /**
+     * One event per quiz generation; {@code tokenUsage} is prompt + completion tokens as billed by the provider.
+     */
+    @Transactional
+    public void logGenerationEvent(
+            String learnerId,
+            String model,
+            long latencyMs,
+            int promptTokens,
+            int completionTokens,
+            Map<String, Object> details) {
+        ObservabilityEvent event = new ObservabilityEvent();
+        event.setLearnerId(learnerId);
+        event.setEventType("GENERATION");
+        event.setLatencyMs(latencyMs);
+        event.setTokenUsage(promptTokens + completionTokens);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("model", model);
+        payload.put("promptTokens", promptTokens);
+        payload.put("completionTokens", completionTokens);
+        payload.putAll(details);
+        event.setPayload(toJson(payload));
+        persistQuietly(event);
+    }
+
     private void persistQuietly(ObservabilityEvent event) {
         try {
             repository.save(event);
@@ -1,30 +1,58 @@
 package com.example.youtubeenglishtutor.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestClient;
 
 @Service
+@ConditionalOnProperty(name = "app.embedding.provider", havingValue = "openai", matchIfMissing = true)
 public class OpenAiEmbeddingService implements EmbeddingService {
 
     private static final Logger log = LoggerFactory.getLogger(OpenAiEmbeddingService.class);
 
     private final RestClient restClient;
     private final String model;
+    private final int maxBatchItems;
+    private final int maxBatchTokens;
+    private final ExecutorService executor;
+    private final EmbeddingCache embeddingCache;
+    private final OpenAiRateLimiter rateLimiter;
 
     public OpenAiEmbeddingService(
+            EmbeddingCache embeddingCache,
+            OpenAiRateLimiter rateLimiter,
+            OutboundHttpClients outboundHttpClients,
             @Value("${app.openai.api-key:}") String apiKey,
-            @Value("${app.openai.embedding-model:text-embedding-3-small}") String model) {
+            @Value("${app.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${app.openai.embedding-model:text-embedding-3-small}") String model,
+            @Value("${app.openai.embedding.max-batch-items:256}") int maxBatchItems,
+            @Value("${app.openai.embedding.max-batch-tokens:100000}") int maxBatchTokens,
+            @Value("${app.openai.embedding.parallelism:4}") int parallelism) {
+        this.embeddingCache = embeddingCache;
+        this.rateLimiter = rateLimiter;
         this.model = model;
+        this.maxBatchItems = Math.max(1, Math.min(maxBatchItems, 2048));
+        this.maxBatchTokens = Math.max(1, maxBatchTokens);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
         String resolvedKey = resolveApiKey(apiKey);
-        this.restClient = RestClient.builder()
-                .baseUrl("https://api.openai.com/v1")
+        this.restClient = outboundHttpClients.restClient(OutboundHttpClients.OPENAI_EMBEDDINGS)
+                .baseUrl(baseUrl)
                 .defaultHeader("Authorization", "Bearer " + resolvedKey)
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
                 .build();
@@ -32,16 +60,136 @@ public class OpenAiEmbeddingService implements EmbeddingService {
 
     @Override
     public List<Double> embed(String text) {
-        EmbeddingRequest request = new EmbeddingRequest(model, text);
+        return embedAll(List.of(text)).get(0);
+    }
+
+    /**
+     * Serves what it can from {@link EmbeddingCache}, then embeds the remaining distinct texts and caches them.
+     */
+    @Override
+    public List<List<Double>> embedAll(List<String> texts) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        if (!embeddingCache.isEnabled()) {
+            return fetchAll(texts);
+        }
+        List<float[]> cached = embeddingCache.getAll(model, texts);
+        Map<String, List<Integer>> missingSlots = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (cached.get(i) == null) {
+                missingSlots.computeIfAbsent(texts.get(i), k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (!missingSlots.isEmpty()) {
+            List<String> toFetch = new ArrayList<>(missingSlots.keySet());
+            List<float[]> fetched = fetchAll(toFetch).stream().map(OpenAiEmbeddingService::toFloats).toList();
+            embeddingCache.putAll(model, toFetch, fetched);
+            for (int i = 0; i < toFetch.size(); i++) {
+                for (int slot : missingSlots.get(toFetch.get(i))) {
+                    cached.set(slot, fetched.get(i));
+                }
+            }
+        }
+        return cached.stream().map(OpenAiEmbeddingService::toDoubles).toList();
+    }
+
+    /**
+     * Packs the inputs into array requests of at most {@code max-batch-items} texts and roughly
+     * {@code max-batch-tokens} tokens, then sends them with at most {@code parallelism} in flight.
+     */
+    private List<List<Double>> fetchAll(List<String> texts) {
+        List<List<String>> batches = planBatches(texts, maxBatchItems, maxBatchTokens);
+        if (batches.size() == 1) {
+            return embedBatch(batches.get(0));
+        }
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<List<List<Double>>>> futures = batches.stream()
+                .map(batch -> CompletableFuture.supplyAsync(ResilientHttpInterceptor.inheritingScope(() -> embedBatch(batch)), executor))
+                .toList();
+        List<List<Double>> ordered = new ArrayList<>(texts.size());
+        try {
+            for (CompletableFuture<List<List<Double>>> future : futures) {
+                ordered.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+        log.debug("Embedded {} texts in {} requests ({} ms)", texts.size(), batches.size(), System.currentTimeMillis() - start);
+        return ordered;
+    }
+
+    private List<List<Double>> embedBatch(List<String> texts) {
+        rateLimiter.acquire(texts.stream().mapToInt(OpenAiEmbeddingService::estimateTokens).sum());
+        EmbeddingBatchRequest request = new EmbeddingBatchRequest(model, texts);
         EmbeddingResponse response = restClient.post()
                 .uri("/embeddings")
                 .body(request)
                 .retrieve()
                 .body(EmbeddingResponse.class);
-        if (response == null || response.data == null || response.data.isEmpty()) {
-            throw new IllegalStateException("Empty embedding response from OpenAI");
+        if (response == null || response.data == null || response.data.size() != texts.size()) {
+            throw new IllegalStateException("Incomplete embedding batch response from OpenAI");
+        }
+        List<List<Double>> ordered = new ArrayList<>(Collections.nCopies(texts.size(), null));
+        for (EmbeddingData data : response.data) {
+            ordered.set(data.index, data.embedding);
         }
-        return response.data.get(0).embedding;
+        return ordered;
+    }
+
+    /**
+     * Splits texts into consecutive batches bounded by item count and estimated tokens (~4 chars per token).
+     * A single text larger than the token budget still gets a batch of its own.
+     */
+    static List<List<String>> planBatches(List<String> texts, int maxItems, int maxTokens) {
+        List<List<String>> batches = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (String text : texts) {
+            int tokens = estimateTokens(text);
+            if (!current.isEmpty() && (current.size() >= maxItems || currentTokens + tokens > maxTokens)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(text);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    private static int estimateTokens(String text) {
+        return text == null ? 1 : text.length() / 4 + 1;
+    }
+
+    private static float[] toFloats(List<Double> vector) {
+        float[] values = new float[vector.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = vector.get(i).floatValue();
+        }
+        return values;
+    }
+
+    private static List<Double> toDoubles(float[] vector) {
+        List<Double> values = new ArrayList<>(vector.length);
+        for (float v : vector) {
+            values.add((double) v);
+        }
+        return values;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String modelName() {
+        return model;
     }
 
     private String resolveApiKey(String apiKey) {
@@ -56,7 +204,7 @@ public class OpenAiEmbeddingService implements EmbeddingService {
         throw new IllegalStateException("OpenAI API key missing.");
     }
 
-    private record EmbeddingRequest(String model, String input) {
+    private record EmbeddingBatchRequest(String model, List<String> input) {
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -66,6 +214,7 @@ public class OpenAiEmbeddingService implements EmbeddingService {
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     private static class EmbeddingData {
+        public int index;
         public List<Double> embedding;
     }
 }
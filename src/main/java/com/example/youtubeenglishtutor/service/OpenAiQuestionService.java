@@ -2,15 +2,28 @@ package com.example.youtubeenglishtutor.service;
 
 import com.example.youtubeenglishtutor.entity.Question;
 import com.example.youtubeenglishtutor.entity.QuestionType;
+import com.example.youtubeenglishtutor.web.LearnerContext;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -19,6 +32,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestClient;
 
 @Service
@@ -29,16 +44,45 @@ public class OpenAiQuestionService implements AiQuestionService {
     private final RestClient restClient;
     private final ObjectMapper objectMapper;
     private final String model;
+    private final boolean stream;
+    private final boolean segmented;
+    private final int segmentChars;
+    private final int segmentMinTranscriptChars;
+    private final ExecutorService segmentExecutor;
+    private final PromptBudgeter promptBudgeter;
+    private final ObservabilityService observabilityService;
+    private final LearnerContext learnerContext;
+    private final OpenAiRateLimiter rateLimiter;
 
     public OpenAiQuestionService(
             ObjectMapper objectMapper,
+            PromptBudgeter promptBudgeter,
+            ObservabilityService observabilityService,
+            LearnerContext learnerContext,
+            OpenAiRateLimiter rateLimiter,
+            OutboundHttpClients outboundHttpClients,
             @Value("${app.openai.api-key:}") String apiKey,
-            @Value("${app.openai.model:gpt-3.5-turbo}") String model) {
+            @Value("${app.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${app.openai.model:gpt-3.5-turbo}") String model,
+            @Value("${app.openai.stream:true}") boolean stream,
+            @Value("${app.openai.segmented.enabled:true}") boolean segmented,
+            @Value("${app.openai.segmented.segment-chars:8000}") int segmentChars,
+            @Value("${app.openai.segmented.min-transcript-chars:16000}") int segmentMinTranscriptChars,
+            @Value("${app.openai.segmented.parallelism:4}") int segmentParallelism) {
         this.objectMapper = objectMapper;
+        this.promptBudgeter = promptBudgeter;
+        this.observabilityService = observabilityService;
+        this.learnerContext = learnerContext;
+        this.rateLimiter = rateLimiter;
         this.model = model;
+        this.stream = stream;
+        this.segmented = segmented;
+        this.segmentChars = Math.max(1000, segmentChars);
+        this.segmentMinTranscriptChars = segmentMinTranscriptChars;
+        this.segmentExecutor = Executors.newFixedThreadPool(Math.max(1, segmentParallelism));
         String resolvedKey = resolveApiKey(apiKey);
-        this.restClient = RestClient.builder()
-                .baseUrl("https://api.openai.com/v1")
+        this.restClient = outboundHttpClients.restClient(OutboundHttpClients.OPENAI)
+                .baseUrl(baseUrl)
                 .defaultHeader("Authorization", "Bearer " + resolvedKey)
                 .defaultHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
                 .build();
@@ -46,7 +90,99 @@ public class OpenAiQuestionService implements AiQuestionService {
 
     @Override
     public List<Question> generateQuestionsFromTranscript(String transcript, DifficultyLevel difficulty, int count, boolean includeWriting) {
-        OpenAiChatRequest request = buildRequest(transcript, difficulty, count, includeWriting);
+        return generateQuestionsFromTranscript(transcript, difficulty, count, includeWriting, q -> { });
+    }
+
+    /**
+     * Compresses the whole transcript, applies the prompt token budget per prompt (the single prompt, or each
+     * segment of a long transcript, so segmentation still covers the whole video), generates, and records one
+     * GENERATION event with the prompt + completion tokens OpenAI reported (summed over segments).
+     */
+    @Override
+    public List<Question> generateQuestionsFromTranscript(
+            String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, Consumer<Question> onQuestion) {
+        long start = System.nanoTime();
+        String learnerId = learnerContext.getCurrentLearnerId();
+        String compressed = promptBudgeter.condense(transcript);
+        boolean split = segmented && compressed.length() >= segmentMinTranscriptChars;
+        TokenUsage usage = new TokenUsage();
+        int generated = -1;
+        try {
+            List<Question> questions;
+            if (split) {
+                questions = generateSegmented(compressed, difficulty, count, includeWriting, usage);
+                questions.forEach(onQuestion);
+            } else {
+                questions = generateWhole(promptBudgeter.fit(compressed), difficulty, count, includeWriting, onQuestion, usage);
+            }
+            generated = questions.size();
+            return questions;
+        } finally {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("transcriptTokensOriginal", TokenEstimator.estimate(transcript != null ? transcript : ""));
+            details.put("transcriptTokensCompressed", TokenEstimator.estimate(compressed));
+            details.put("transcriptTokensSent", usage.sent.get());
+            details.put("segmented", split);
+            details.put("requested", count);
+            details.put("generated", generated);
+            observabilityService.logGenerationEvent(learnerId, model, (System.nanoTime() - start) / 1_000_000,
+                    usage.prompt.get(), usage.completion.get(), details);
+        }
+    }
+
+    /**
+     * Map-reduce generation for long transcripts: word-aligned segments of about {@code segment-chars} are sent
+     * concurrently (at most {@code parallelism} in flight), each asked for a share of the questions proportional
+     * to its length plus a little slack for de-duplication; the results are merged in video order.
+     */
+    private List<Question> generateSegmented(
+            String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, TokenUsage usage) {
+        List<TranscriptChunker.Chunk> segments = TranscriptChunker.chunk(transcript, segmentChars, 0);
+        int[] lengths = segments.stream().mapToInt(c -> c.text().length()).toArray();
+        int[] quotas = QuestionMerger.allocate(lengths, count);
+        int writingSegment = 0;
+        for (int i = 1; i < lengths.length; i++) {
+            if (lengths[i] > lengths[writingSegment]) {
+                writingSegment = i;
+            }
+        }
+        long start = System.nanoTime();
+        List<CompletableFuture<List<Question>>> futures = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            if (quotas[i] == 0) {
+                futures.add(CompletableFuture.completedFuture(List.of()));
+                continue;
+            }
+            String text = promptBudgeter.fit(segments.get(i).text());
+            int ask = quotas[i] + Math.max(1, quotas[i] / 4);
+            boolean writing = includeWriting && i == writingSegment;
+            int segment = i;
+            futures.add(CompletableFuture.supplyAsync(
+                    ResilientHttpInterceptor.inheritingScope(() -> generateWhole(text, difficulty, ask, writing, q -> { }, usage)), segmentExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Segment {} of {} failed during quiz generation: {}", segment + 1, segments.size(), e.getMessage());
+                        return List.of();
+                    }));
+        }
+        List<List<Question>> perSegment = futures.stream().map(CompletableFuture::join).toList();
+        List<Question> merged = QuestionMerger.merge(perSegment, quotas, count, includeWriting);
+        if (merged.isEmpty()) {
+            throw new IllegalStateException("Quiz generation failed for all " + segments.size() + " transcript segments");
+        }
+        log.info("Generated {} questions from {} segments in {} ms", merged.size(), segments.size(), (System.nanoTime() - start) / 1_000_000);
+        return merged;
+    }
+
+    private List<Question> generateWhole(
+            String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, Consumer<Question> onQuestion, TokenUsage usage) {
+        int transcriptTokens = TokenEstimator.estimate(transcript);
+        usage.sent.addAndGet(transcriptTokens);
+        // Prompt (transcript plus ~300 tokens of instructions) and roughly 80 completion tokens per question.
+        rateLimiter.acquire(transcriptTokens + 300 + 80 * Math.max(3, count));
+        if (stream) {
+            return streamQuestions(buildRequest(transcript, difficulty, count, includeWriting, true), onQuestion, usage);
+        }
+        OpenAiChatRequest request = buildRequest(transcript, difficulty, count, includeWriting, null);
         log.info("Calling OpenAI model={} for quiz generation", model);
         OpenAiChatResponse response = restClient.post()
                 .uri("/chat/completions")
@@ -54,6 +190,9 @@ public class OpenAiQuestionService implements AiQuestionService {
                 .retrieve()
                 .body(OpenAiChatResponse.class);
 
+        if (response != null && response.usage != null) {
+            usage.add(response.usage.promptTokens, response.usage.completionTokens);
+        }
         if (response == null || response.choices == null || response.choices.isEmpty()) {
             log.warn("OpenAI returned empty response");
             return Collections.emptyList();
@@ -61,10 +200,87 @@ public class OpenAiQuestionService implements AiQuestionService {
 
         String content = response.choices.get(0).message.content;
         log.debug("OpenAI raw content: {}", content);
-        return parseQuestionsFromContent(content);
+        List<Question> questions = parseQuestionsFromContent(content);
+        questions.forEach(onQuestion);
+        return questions;
+    }
+
+    /**
+     * Reads the server-sent event stream, feeding content deltas to a {@link JsonArrayStreamParser} so each
+     * question is parsed and handed to {@code onQuestion} as soon as its object closes. If the model did not
+     * answer with an array, the accumulated content goes through the regular full parse. A stream that ends
+     * before the array closes (finish_reason=length, dropped connection) fails rather than returning a short quiz
+     * that would then be cached and banked.
+     */
+    private List<Question> streamQuestions(OpenAiChatRequest request, Consumer<Question> onQuestion, TokenUsage usage) {
+        log.info("Calling OpenAI model={} for quiz generation (streaming)", model);
+        long start = System.nanoTime();
+        List<Question> questions = new ArrayList<>();
+        StringBuilder content = new StringBuilder();
+        JsonArrayStreamParser parser = new JsonArrayStreamParser(json -> {
+            Question question;
+            try {
+                question = toQuestion(objectMapper.readTree(json));
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to parse streamed question: " + json, e);
+            }
+            if (questions.isEmpty()) {
+                log.info("First streamed question after {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+            questions.add(question);
+            onQuestion.accept(question);
+        });
+        restClient.post()
+                .uri("/chat/completions")
+                .body(request)
+                .exchange((req, res) -> {
+                    if (res.getStatusCode().isError()) {
+                        byte[] body = res.getBody().readAllBytes();
+                        if (res.getStatusCode().is4xxClientError()) {
+                            throw HttpClientErrorException.create(res.getStatusCode(), res.getStatusText(), res.getHeaders(), body, StandardCharsets.UTF_8);
+                        }
+                        throw HttpServerErrorException.create(res.getStatusCode(), res.getStatusText(), res.getHeaders(), body, StandardCharsets.UTF_8);
+                    }
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(res.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.startsWith("data:")) {
+                                continue;
+                            }
+                            String data = line.substring(5).trim();
+                            if ("[DONE]".equals(data)) {
+                                break;
+                            }
+                            JsonNode chunk = objectMapper.readTree(data);
+                            JsonNode reported = chunk.path("usage");
+                            if (reported.isObject()) {
+                                // Only the final chunk carries usage, and only because stream_options asks for it.
+                                usage.add(reported.path("prompt_tokens").asInt(), reported.path("completion_tokens").asInt());
+                            }
+                            JsonNode delta = chunk.path("choices").path(0).path("delta").path("content");
+                            if (delta.isTextual()) {
+                                content.append(delta.asText());
+                                parser.feed(delta.asText());
+                            }
+                        }
+                    }
+                    return null;
+                });
+        if (parser.objectCount() == 0) {
+            log.debug("OpenAI streamed content was not an array; parsing in full: {}", content);
+            List<Question> parsed = parseQuestionsFromContent(content.toString());
+            parsed.forEach(onQuestion);
+            return parsed;
+        }
+        if (!parser.isComplete()) {
+            throw new IllegalStateException("OpenAI stream ended before the question array closed after "
+                    + questions.size() + " question(s)");
+        }
+        log.info("Parsed {} streamed questions from OpenAI in {} ms", questions.size(), (System.nanoTime() - start) / 1_000_000);
+        return questions;
     }
 
-    private OpenAiChatRequest buildRequest(String transcript, DifficultyLevel difficulty, int count, boolean includeWriting) {
+    private OpenAiChatRequest buildRequest(String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, Boolean stream) {
         String systemPrompt = """
                 You create English quiz questions from transcripts. Produce EXACTLY %d questions as a JSON array.
                 Each item: {"type":"SINGLE_CHOICE|MULTIPLE_CHOICE|TRUE_FALSE|FILL_IN_BLANK|WRITING","text":"...","options":["opt1","opt2"],"correct":["answer1","answer2"]}.
@@ -82,7 +298,7 @@ public class OpenAiQuestionService implements AiQuestionService {
                                 + (includeWriting ? "\nInclude at least one WRITING question." : "")
                                 + "\nTranscript:\n" + transcript)
         );
-        return new OpenAiChatRequest(model, messages, 0.3);
+        return new OpenAiChatRequest(model, messages, 0.3, stream, Boolean.TRUE.equals(stream) ? new StreamOptions(true) : null);
     }
 
     private List<Question> parseQuestionsFromContent(String content) {
@@ -155,6 +371,16 @@ public class OpenAiQuestionService implements AiQuestionService {
         return List.of(node.asText());
     }
 
+    @Override
+    public String modelName() {
+        return model;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        segmentExecutor.shutdownNow();
+    }
+
     private String resolveApiKey(String apiKey) {
         if (StringUtils.hasText(apiKey)) {
             return apiKey;
@@ -170,15 +396,44 @@ public class OpenAiQuestionService implements AiQuestionService {
     private record ChatMessage(String role, String content) {
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private record OpenAiChatRequest(
             String model,
             List<ChatMessage> messages,
-            @JsonProperty("temperature") double temperature) {
+            @JsonProperty("temperature") double temperature,
+            Boolean stream,
+            @JsonProperty("stream_options") StreamOptions streamOptions) {
+    }
+
+    private record StreamOptions(@JsonProperty("include_usage") boolean includeUsage) {
+    }
+
+    /**
+     * Token counts reported by OpenAI, accumulated across the (possibly concurrent) calls of one generation.
+     */
+    private static final class TokenUsage {
+        final AtomicInteger prompt = new AtomicInteger();
+        final AtomicInteger completion = new AtomicInteger();
+        final AtomicInteger sent = new AtomicInteger(); // estimated transcript tokens placed in prompts
+
+        void add(int promptTokens, int completionTokens) {
+            prompt.addAndGet(promptTokens);
+            completion.addAndGet(completionTokens);
+        }
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     private static class OpenAiChatResponse {
         public List<Choice> choices;
+        public Usage usage;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class Usage {
+        @JsonProperty("prompt_tokens")
+        public int promptTokens;
+        @JsonProperty("completion_tokens")
+        public int completionTokens;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -0,0 +1,72 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-wide requests-per-minute and tokens-per-minute budget for OpenAI, shared by every caller (learner
+ * requests and the nightly jobs alike) so parallel workers slow down instead of tripping 429s.
+ */
+@Component
+public class OpenAiRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenAiRateLimiter.class);
+
+    private final boolean enabled;
+    private final TokenBucket requests;
+    private final TokenBucket tokens;
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong waitedMillis = new AtomicLong();
+
+    public OpenAiRateLimiter(
+            @Value("${app.openai.rate-limit.enabled:true}") boolean enabled,
+            @Value("${app.openai.rate-limit.requests-per-minute:500}") long requestsPerMinute,
+            @Value("${app.openai.rate-limit.tokens-per-minute:200000}") long tokensPerMinute) {
+        this.enabled = enabled;
+        long now = System.currentTimeMillis();
+        this.requests = new TokenBucket(requestsPerMinute, now);
+        this.tokens = new TokenBucket(tokensPerMinute, now);
+    }
+
+    /**
+     * Blocks until one request carrying about {@code estimatedTokens} tokens fits in the budget.
+     */
+    public void acquire(int estimatedTokens) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long wait = Math.max(requests.reserve(1, now), tokens.reserve(estimatedTokens, now));
+        acquired.incrementAndGet();
+        if (wait <= 0) {
+            return;
+        }
+        throttled.incrementAndGet();
+        waitedMillis.addAndGet(wait);
+        log.debug("OpenAI rate limit: waiting {} ms for {} tokens", wait, estimatedTokens);
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for OpenAI rate limit", e);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("acquired", acquired.get());
+        map.put("throttled", throttled.get());
+        map.put("waitedMillis", waitedMillis.get());
+        map.put("requestsAvailable", (long) requests.available(now));
+        map.put("tokensAvailable", (long) tokens.available(now));
+        return map;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.youtubeenglishtutor.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * One pooled, keep-alive HTTP client shared by every outbound integration (OpenAI chat, OpenAI embeddings,
+ * YouTube Data API). Each named endpoint gets its own connect/read timeouts, overall deadline, retry policy and
+ * circuit breaker on top of the shared pool, configured under {@code app.http.<endpoint>.*}.
+ */
+@Component
+public class OutboundHttpClients {
+
+    public static final String OPENAI = "openai";
+    public static final String OPENAI_EMBEDDINGS = "openai-embeddings";
+    public static final String YOUTUBE = "youtube";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundHttpClients.class);
+
+    private final Environment env;
+    private final OpenAiRateLimiter rateLimiter;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public OutboundHttpClients(
+            Environment env,
+            OpenAiRateLimiter rateLimiter,
+            @Value("${app.http.pool.max-total:100}") int maxTotal,
+            @Value("${app.http.pool.max-per-route:20}") int maxPerRoute,
+            @Value("${app.http.pool.idle-evict-ms:30000}") long idleEvictMs,
+            @Value("${app.http.pool.ttl-ms:300000}") long ttlMs) {
+        this.env = env;
+        this.rateLimiter = rateLimiter;
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(Math.max(1, maxTotal))
+                .setMaxConnPerRoute(Math.max(1, maxPerRoute))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.ofMilliseconds(ttlMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        // Retries live in ResilientHttpInterceptor so they respect the endpoint's deadline and breaker.
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(Math.max(1000, idleEvictMs)))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    /**
+     * A RestClient builder bound to the shared pool and the named endpoint's timeouts, retries and breaker.
+     */
+    public RestClient.Builder restClient(String endpoint) {
+        Endpoint e = endpoint(endpoint);
+        return RestClient.builder()
+                .requestFactory(e.requestFactory)
+                .requestInterceptor(e.interceptor);
+    }
+
+    HttpComponentsClientHttpRequestFactory requestFactory(String endpoint) {
+        return endpoint(endpoint).requestFactory;
+    }
+
+    ResilientHttpInterceptor interceptor(String endpoint) {
+        return endpoint(endpoint).interceptor;
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, this::createEndpoint);
+    }
+
+    private Endpoint createEndpoint(String name) {
+        boolean openAi = name.startsWith("openai");
+        long connectMs = setting(name, "connect-timeout-ms", 5000);
+        long readMs = setting(name, "read-timeout-ms", switch (name) {
+            case OPENAI -> 120000;
+            case OPENAI_EMBEDDINGS -> 30000;
+            default -> 10000;
+        });
+        long deadlineMs = setting(name, "deadline-ms", switch (name) {
+            case OPENAI -> 180000;
+            case OPENAI_EMBEDDINGS -> 60000;
+            default -> 20000;
+        });
+        int maxAttempts = (int) setting(name, "max-attempts", 3);
+        long backoffMs = setting(name, "backoff-ms", 500);
+        // OpenAI completions and embeddings have no server-side effects, so their POSTs are safe to repeat.
+        boolean retryPost = env.getProperty("app.http." + name + ".retry-post", Boolean.class, openAi);
+        int failureThreshold = env.getProperty("app.http.circuit.failure-threshold", Integer.class, 5);
+        long openMs = env.getProperty("app.http.circuit.open-ms", Long.class, 30000L);
+
+        EndpointRequestFactory factory = new EndpointRequestFactory(httpClient, readMs);
+        factory.setConnectTimeout((int) connectMs);
+        factory.setConnectionRequestTimeout((int) connectMs);
+        ResilientHttpInterceptor interceptor = new ResilientHttpInterceptor(
+                name,
+                new ResilientHttpInterceptor.Policy(Math.max(1, maxAttempts), backoffMs, deadlineMs, retryPost),
+                new CircuitBreaker(failureThreshold, openMs),
+                // Retries spend OpenAI budget too; charge them by request size (~4 bytes per token).
+                openAi ? body -> rateLimiter.acquire(body.length / 4 + 1) : null);
+        log.info("Outbound HTTP endpoint '{}': connect={}ms read={}ms deadline={}ms attempts={}", name, connectMs, readMs, deadlineMs, maxAttempts);
+        return new Endpoint(factory, interceptor);
+    }
+
+    private long setting(String endpoint, String key, long defaultValue) {
+        return env.getProperty("app.http." + endpoint + "." + key, Long.class, defaultValue);
+    }
+
+    /**
+     * Pool occupancy plus per-endpoint attempts, retries, latency percentiles and breaker state.
+     */
+    public Map<String, Object> stats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("pool", Map.of(
+                "leased", pool.getLeased(),
+                "available", pool.getAvailable(),
+                "pending", pool.getPending(),
+                "max", pool.getMax()));
+        Map<String, Object> perEndpoint = new LinkedHashMap<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> perEndpoint.put(e.getKey(), e.getValue().interceptor.stats()));
+        out.put("endpoints", perEndpoint);
+        return out;
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        httpClient.close();
+    }
+
+    private record Endpoint(HttpComponentsClientHttpRequestFactory requestFactory, ResilientHttpInterceptor interceptor) {
+    }
+
+    /**
+     * Adds the endpoint's response (socket read) timeout, which the Spring factory does not expose here.
+     */
+    private static final class EndpointRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final long readTimeoutMs;
+
+        EndpointRequestFactory(CloseableHttpClient client, long readTimeoutMs) {
+            super(client);
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        @Override
+        protected RequestConfig mergeRequestConfig(RequestConfig clientConfig) {
+            return RequestConfig.copy(super.mergeRequestConfig(clientConfig))
+                    .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                    .build();
+        }
+
+        @Override
+        public void destroy() {
+            // The shared client is closed by OutboundHttpClients.
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.youtubeenglishtutor.service;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the incubating Vector API. Only loaded by {@link DotProductKernels} when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; otherwise the scalar kernel is used.
+ */
+final class PanamaDotProductKernel implements DotProductKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public void dotAll(float[][] queries, float[] matrix, int rows, int dimension, float[][] out) {
+        for (int row = 0; row < rows; row++) {
+            int offset = row * dimension;
+            for (int q = 0; q < queries.length; q++) {
+                out[q][row] = dot(queries[q], matrix, offset, dimension);
+            }
+        }
+    }
+
+    private static float dot(float[] query, float[] matrix, int offset, int dimension) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int i = 0;
+        int upper = SPECIES.loopBound(dimension);
+        for (; i < upper; i += SPECIES.length()) {
+            FloatVector a = FloatVector.fromArray(SPECIES, query, i);
+            FloatVector b = FloatVector.fromArray(SPECIES, matrix, offset + i);
+            acc = a.fma(b, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < dimension; i++) {
+            sum += query[i] * matrix[offset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector-api(" + SPECIES.vectorBitSize() + "-bit)";
+    }
+}
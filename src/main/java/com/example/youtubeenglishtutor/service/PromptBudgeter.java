@@ -0,0 +1,233 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Shrinks a transcript before it goes into a generation prompt: strips caption noise (bracketed markers such as
+ * [Music], filler words, the rolling repeats of auto-generated captions), then, if it is still over
+ * {@code app.openai.prompt.token-budget}, keeps the most informative windows (by summed IDF of their distinct
+ * terms) in their original order.
+ */
+@Component
+public class PromptBudgeter {
+
+    private static final Set<String> FILLERS = Set.of("um", "uh", "uhm", "umm", "erm", "er", "ah", "hmm", "mm", "mhm");
+    private static final int MAX_REPEAT_WORDS = 24;
+    private static final int MIN_REPEAT_WORDS = 2;
+    private static final int MAX_MARKER_CHARS = 30;
+    private static final int SELECTION_WINDOW_CHARS = 800;
+    private static final String GAP = " … ";
+
+    /**
+     * The prompt-ready transcript and estimated token counts before and after each stage.
+     */
+    public record Prepared(String text, int originalTokens, int compressedTokens, int promptTokens) {
+    }
+
+    private final boolean compress;
+    private final int tokenBudget;
+
+    public PromptBudgeter(
+            @Value("${app.openai.prompt.compress:true}") boolean compress,
+            @Value("${app.openai.prompt.token-budget:6000}") int tokenBudget) {
+        this.compress = compress;
+        this.tokenBudget = tokenBudget;
+    }
+
+    /**
+     * Compresses and fits the transcript for a single prompt.
+     */
+    public Prepared prepare(String transcript) {
+        String text = transcript != null ? transcript : "";
+        int original = TokenEstimator.estimate(text);
+        String compressed = condense(text);
+        int compressedTokens = compress ? TokenEstimator.estimate(compressed) : original;
+        String selected = tokenBudget > 0 && compressedTokens > tokenBudget ? selectWithinBudget(compressed, tokenBudget) : compressed;
+        int promptTokens = selected == compressed ? compressedTokens : TokenEstimator.estimate(selected);
+        return new Prepared(selected, original, compressedTokens, promptTokens);
+    }
+
+    /**
+     * The compression stage alone, for callers that split the transcript across several prompts and
+     * {@link #fit} each one.
+     */
+    public String condense(String transcript) {
+        String text = transcript != null ? transcript : "";
+        return compress ? compress(text) : text;
+    }
+
+    /**
+     * The budget stage alone: trims {@code text} to the per-prompt token budget if it is over.
+     */
+    public String fit(String text) {
+        return tokenBudget > 0 && TokenEstimator.estimate(text) > tokenBudget ? selectWithinBudget(text, tokenBudget) : text;
+    }
+
+    static String compress(String transcript) {
+        List<String> words = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= transcript.length(); i++) {
+            char c = i < transcript.length() ? transcript.charAt(i) : ' ';
+            int markerEnd = c == '[' || c == '(' ? markerEnd(transcript, i) : -1;
+            if (markerEnd > 0) {
+                // Skip the marker and treat it as a word break.
+                i = markerEnd;
+                c = ' ';
+            }
+            if (c == '♪') {
+                continue;
+            }
+            if (!Character.isWhitespace(c)) {
+                word.append(c);
+                continue;
+            }
+            if (word.length() == 0) {
+                continue;
+            }
+            String w = word.toString();
+            word.setLength(0);
+            String key = key(w);
+            if (w.startsWith(">>") && key.isEmpty()) {
+                continue; // speaker-change marker
+            }
+            if (FILLERS.contains(key)) {
+                continue;
+            }
+            words.add(w);
+            keys.add(key);
+        }
+        return dropRollingRepeats(words, keys);
+    }
+
+    /**
+     * Index of the bracket closing a caption marker such as [Music] or (laughs) opened at {@code start}, or -1
+     * when it is not one: no close within {@link #MAX_MARKER_CHARS}, or a sentence break or another opener
+     * comes first. Unclosed brackets and longer asides are kept as spoken text.
+     */
+    private static int markerEnd(String text, int start) {
+        char close = text.charAt(start) == '[' ? ']' : ')';
+        int limit = Math.min(text.length(), start + MAX_MARKER_CHARS + 1);
+        for (int i = start + 1; i < limit; i++) {
+            char c = text.charAt(i);
+            if (c == close) {
+                return i;
+            }
+            if (c == '.' || c == '!' || c == '?' || c == '\n' || c == '[' || c == '(') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Auto-captions re-emit the tail of the previous line at the start of the next ("so today we / so today we
+     * talk about"). Whenever the next k words equal the last k words already kept, they are skipped.
+     */
+    private static String dropRollingRepeats(List<String> words, List<String> keys) {
+        List<String> out = new ArrayList<>(words.size());
+        List<String> outKeys = new ArrayList<>(words.size());
+        int i = 0;
+        while (i < words.size()) {
+            int skip = 0;
+            int maxK = Math.min(MAX_REPEAT_WORDS, Math.min(outKeys.size(), words.size() - i));
+            for (int k = maxK; k >= MIN_REPEAT_WORDS; k--) {
+                if (sameRun(outKeys, outKeys.size() - k, keys, i, k)) {
+                    skip = k;
+                    break;
+                }
+            }
+            if (skip > 0) {
+                i += skip;
+                continue;
+            }
+            out.add(words.get(i));
+            outKeys.add(keys.get(i));
+            i++;
+        }
+        return String.join(" ", out);
+    }
+
+    private static boolean sameRun(List<String> a, int aStart, List<String> b, int bStart, int length) {
+        for (int j = 0; j < length; j++) {
+            if (!a.get(aStart + j).equals(b.get(bStart + j))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String word) {
+        StringBuilder sb = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Greedily keeps the windows with the highest IDF mass per token until the budget is spent, then restores
+     * transcript order, marking dropped stretches with an ellipsis.
+     */
+    static String selectWithinBudget(String text, int tokenBudget) {
+        List<TranscriptChunker.Chunk> windows = TranscriptChunker.chunk(text, SELECTION_WINDOW_CHARS, 0);
+        int n = windows.size();
+        List<Set<String>> terms = new ArrayList<>(n);
+        Map<String, Integer> df = new HashMap<>();
+        for (TranscriptChunker.Chunk window : windows) {
+            Set<String> distinct = new HashSet<>(Bm25Index.tokenize(window.text()));
+            terms.add(distinct);
+            distinct.forEach(t -> df.merge(t, 1, Integer::sum));
+        }
+        int[] tokens = new int[n];
+        double[] density = new double[n];
+        for (int i = 0; i < n; i++) {
+            tokens[i] = Math.max(1, TokenEstimator.estimate(windows.get(i).text()));
+            double idf = 0;
+            for (String t : terms.get(i)) {
+                idf += Math.log((double) n / df.get(t));
+            }
+            density[i] = idf / tokens[i];
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(density[b], density[a]));
+        boolean[] keep = new boolean[n];
+        int used = 0;
+        for (int i : order) {
+            if (used + tokens[i] <= tokenBudget) {
+                keep[i] = true;
+                used += tokens[i];
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        boolean gap = false;
+        for (int i = 0; i < n; i++) {
+            if (!keep[i]) {
+                gap = true;
+                continue;
+            }
+            if (sb.length() > 0 || gap) {
+                sb.append(sb.length() > 0 && !gap ? " " : GAP);
+            }
+            sb.append(windows.get(i).text());
+            gap = false;
+        }
+        // A single window over budget: fall back to a hard cut at ~4 chars per token.
+        return StringUtils.hasText(sb) ? sb.toString() : text.substring(0, Math.min(text.length(), tokenBudget * 4));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recall and latency of int8 scanning, with and without float32 rescoring, against exact float32 ranking on
+ * the same rows and queries. Rescoring here reads the in-memory exact vectors; in production those come from
+ * one batched chunk lookup, which this report does not time.
+ */
+public record QuantizationReport(
+        int rows,
+        int dimension,
+        int queries,
+        int k,
+        int rescoreCandidates,
+        long exactVectorBytes,
+        long quantizedVectorBytes,
+        double exactMicros,
+        double quantizedMicros,
+        double rescoredMicros,
+        double quantizedRecall,
+        double rescoredRecall
+) {
+
+    private static final int REPETITIONS = 20;
+
+    public static QuantizationReport run(VectorIndex exact, VectorIndex quantized, float[][] queries, int k,
+                                         int rescoreCandidates, DotProductKernel kernel) {
+        int rows = exact.size();
+        int dim = exact.dimension();
+        float[][] scores = new float[queries.length][rows];
+
+        int[][] reference = new int[queries.length][];
+        long start = System.nanoTime();
+        for (int rep = 0; rep < REPETITIONS; rep++) {
+            exact.scoreAll(queries, kernel, scores);
+            for (int q = 0; q < queries.length; q++) {
+                reference[q] = TopKSelector.select(scores[q], k);
+            }
+        }
+        double exactMicros = micros(start);
+
+        int[][] scanned = new int[queries.length][];
+        start = System.nanoTime();
+        for (int rep = 0; rep < REPETITIONS; rep++) {
+            quantized.scoreAll(queries, kernel, scores);
+            for (int q = 0; q < queries.length; q++) {
+                scanned[q] = TopKSelector.select(scores[q], k);
+            }
+        }
+        double quantizedMicros = micros(start);
+
+        int[][] rescored = new int[queries.length][];
+        float[] matrix = exact.vectors();
+        start = System.nanoTime();
+        for (int rep = 0; rep < REPETITIONS; rep++) {
+            quantized.scoreAll(queries, kernel, scores);
+            for (int q = 0; q < queries.length; q++) {
+                for (int row : TopKSelector.select(scores[q], rescoreCandidates)) {
+                    scores[q][row] = ScalarDotProductKernel.dot(queries[q], matrix, row * dim, dim);
+                }
+                rescored[q] = TopKSelector.select(scores[q], k);
+            }
+        }
+        double rescoredMicros = micros(start);
+
+        return new QuantizationReport(
+                rows,
+                dim,
+                queries.length,
+                k,
+                rescoreCandidates,
+                (long) rows * dim * Float.BYTES,
+                (long) rows * dim + (long) rows * Float.BYTES,
+                exactMicros,
+                quantizedMicros,
+                rescoredMicros,
+                recall(reference, scanned),
+                recall(reference, rescored));
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("rows", rows);
+        map.put("dimension", dimension);
+        map.put("queries", queries);
+        map.put("k", k);
+        map.put("rescoreCandidates", rescoreCandidates);
+        map.put("exactVectorBytes", exactVectorBytes);
+        map.put("quantizedVectorBytes", quantizedVectorBytes);
+        map.put("exactMicrosPerPage", exactMicros);
+        map.put("quantizedMicrosPerPage", quantizedMicros);
+        map.put("rescoredMicrosPerPage", rescoredMicros);
+        map.put("quantizedRecallAtK", quantizedRecall);
+        map.put("rescoredRecallAtK", rescoredRecall);
+        return map;
+    }
+
+    /**
+     * Mean fraction of the exact top-k that each approximate top-k recovered.
+     */
+    static double recall(int[][] reference, int[][] approximate) {
+        if (reference.length == 0) {
+            return 1.0;
+        }
+        double total = 0;
+        for (int q = 0; q < reference.length; q++) {
+            if (reference[q].length == 0) {
+                total += 1.0;
+                continue;
+            }
+            int found = 0;
+            for (int expected : reference[q]) {
+                for (int got : approximate[q]) {
+                    if (got == expected) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            total += (double) found / reference[q].length;
+        }
+        return total / reference.length;
+    }
+
+    private static double micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000.0 / REPETITIONS;
+    }
+}
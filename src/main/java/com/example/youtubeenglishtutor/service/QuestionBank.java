@@ -0,0 +1,234 @@
+package com.example.youtubeenglishtutor.service;
+
+import com.example.youtubeenglishtutor.entity.BankQuestion;
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import com.example.youtubeenglishtutor.repository.BankQuestionRepository;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Per-video shared bank of validated questions, keyed by (video, transcript hash, difficulty). Every generation
+ * for a video adds its valid, non-duplicate questions; new tests are sampled from the bank with an even type mix,
+ * least-served questions first, once it holds at least {@code min-pool-factor} times the requested size.
+ */
+@Component
+public class QuestionBank {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionBank.class);
+
+    public record Stats(long samples, long tooSmall, long added, long rejected) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("samples", samples);
+            map.put("tooSmall", tooSmall);
+            map.put("sampleRate", samples + tooSmall == 0 ? 0.0 : (double) samples / (double) (samples + tooSmall));
+            map.put("added", added);
+            map.put("rejected", rejected);
+            return map;
+        }
+    }
+
+    private final BankQuestionRepository repository;
+    private final TransactionTemplate writeTransaction;
+    private final boolean enabled;
+    private final double minPoolFactor;
+    private final int maxPerVideo;
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong tooSmall = new AtomicLong();
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public QuestionBank(
+            BankQuestionRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.question-bank.enabled:true}") boolean enabled,
+            @Value("${app.question-bank.min-pool-factor:1.5}") double minPoolFactor,
+            @Value("${app.question-bank.max-per-video:200}") int maxPerVideo) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.minPoolFactor = Math.max(1.0, minPoolFactor);
+        this.maxPerVideo = Math.max(1, maxPerVideo);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Samples {@code size} questions (exactly one WRITING when {@code includeWriting}), or empty when the bank is
+     * too small to give a varied quiz. Returned questions are fresh, unsaved copies.
+     */
+    public Optional<List<Question>> sample(String videoKey, String transcript, DifficultyLevel difficulty, int size, boolean includeWriting) {
+        if (!enabled || !StringUtils.hasText(videoKey) || transcript == null) {
+            return Optional.empty();
+        }
+        try {
+            List<BankQuestion> pool = repository.findByVideoKeyAndTranscriptHashAndDifficultyOrderByIdAsc(
+                    videoKey, ContentHashes.sha256Hex(transcript), difficultyName(difficulty));
+            List<BankQuestion> picked = pick(pool, size, includeWriting, minPoolFactor, ThreadLocalRandom.current());
+            if (picked.isEmpty()) {
+                tooSmall.incrementAndGet();
+                return Optional.empty();
+            }
+            writeTransaction.executeWithoutResult(status -> repository.incrementServed(picked.stream().map(BankQuestion::getId).toList()));
+            samples.incrementAndGet();
+            log.info("Sampled {} questions from bank of {} for video={}", picked.size(), pool.size(), videoKey);
+            return Optional.of(picked.stream().map(QuestionBank::toQuestion).toList());
+        } catch (Exception e) {
+            log.warn("Question bank sample failed for video={}; generating instead: {}", videoKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Adds the valid questions that are not near-duplicates of ones already banked, and drops bank entries for
+     * older transcripts of the same video. Failures are logged and ignored.
+     */
+    public void add(String videoKey, String transcript, DifficultyLevel difficulty, List<Question> questions) {
+        if (!enabled || !StringUtils.hasText(videoKey) || transcript == null || questions.isEmpty()) {
+            return;
+        }
+        String transcriptHash = ContentHashes.sha256Hex(transcript);
+        String level = difficultyName(difficulty);
+        try {
+            List<BankQuestion> pool = repository.findByVideoKeyAndTranscriptHashAndDifficultyOrderByIdAsc(videoKey, transcriptHash, level);
+            List<Set<String>> seen = new ArrayList<>();
+            pool.forEach(q -> seen.add(QuestionMerger.tokens(q.getText())));
+            List<BankQuestion> fresh = new ArrayList<>();
+            int skipped = 0;
+            for (Question question : questions) {
+                Set<String> tokens = QuestionMerger.tokens(question.getText());
+                if (pool.size() + fresh.size() >= maxPerVideo || !isValid(question)
+                        || seen.stream().anyMatch(other -> QuestionMerger.nearDuplicate(tokens, other))) {
+                    skipped++;
+                    continue;
+                }
+                seen.add(tokens);
+                fresh.add(toBank(question, videoKey, transcriptHash, level));
+            }
+            writeTransaction.executeWithoutResult(status -> {
+                repository.deleteStaleVersions(videoKey, transcriptHash);
+                repository.saveAll(fresh);
+            });
+            added.addAndGet(fresh.size());
+            rejected.addAndGet(skipped);
+            log.debug("Question bank video={} added={} skipped={} size={}", videoKey, fresh.size(), skipped, pool.size() + fresh.size());
+        } catch (Exception e) {
+            log.debug("Question bank write skipped for video={}: {}", videoKey, e.getMessage());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(samples.get(), tooSmall.get(), added.get(), rejected.get());
+    }
+
+    /**
+     * Structural checks on a generated question: choice questions need at least two options and correct answers
+     * drawn from them (exactly one for SINGLE_CHOICE), TRUE_FALSE needs True or False, FILL_IN_BLANK an answer.
+     */
+    static boolean isValid(Question question) {
+        if (question.getType() == null || !StringUtils.hasText(question.getText()) || question.getText().trim().length() < 8) {
+            return false;
+        }
+        List<String> options = question.getOptionList().stream().map(o -> o.toLowerCase(Locale.ROOT)).toList();
+        List<String> correct = question.getCorrectAnswerList().stream().map(c -> c.toLowerCase(Locale.ROOT)).toList();
+        return switch (question.getType()) {
+            case SINGLE_CHOICE -> options.size() >= 2 && correct.size() == 1 && options.containsAll(correct);
+            case MULTIPLE_CHOICE -> options.size() >= 2 && !correct.isEmpty() && options.containsAll(correct);
+            case TRUE_FALSE -> correct.size() == 1 && (correct.get(0).equals("true") || correct.get(0).equals("false"));
+            case FILL_IN_BLANK -> !correct.isEmpty();
+            case WRITING -> true;
+        };
+    }
+
+    /**
+     * Picks {@code size} questions: one WRITING if requested, the rest spread round-robin across the other types
+     * so the mix stays even, preferring the least-served questions (ties broken randomly). Returns an empty list
+     * when the pool has fewer than {@code minPoolFactor * size} candidates. Output keeps the pool's (generation) order.
+     */
+    static List<BankQuestion> pick(List<BankQuestion> pool, int size, boolean includeWriting, double minPoolFactor, Random random) {
+        if (size <= 0) {
+            return List.of();
+        }
+        Map<QuestionType, List<BankQuestion>> byType = new EnumMap<>(QuestionType.class);
+        for (BankQuestion q : pool) {
+            byType.computeIfAbsent(q.getType(), t -> new ArrayList<>()).add(q);
+        }
+        for (List<BankQuestion> candidates : byType.values()) {
+            Collections.shuffle(candidates, random);
+            candidates.sort(Comparator.comparingInt(q -> q.getServedCount() == null ? 0 : q.getServedCount()));
+        }
+        List<BankQuestion> writing = byType.remove(QuestionType.WRITING);
+        int writingSlots = includeWriting ? 1 : 0;
+        int slots = size - writingSlots;
+        int available = byType.values().stream().mapToInt(List::size).sum();
+        if ((includeWriting && (writing == null || writing.isEmpty())) || available < Math.ceil(slots * Math.max(1.0, minPoolFactor))) {
+            return List.of();
+        }
+        List<BankQuestion> picked = new ArrayList<>(size);
+        if (includeWriting) {
+            picked.add(writing.get(0));
+        }
+        int[] taken = new int[QuestionType.values().length];
+        while (picked.size() < size) {
+            for (Map.Entry<QuestionType, List<BankQuestion>> entry : byType.entrySet()) {
+                int t = entry.getKey().ordinal();
+                if (picked.size() < size && taken[t] < entry.getValue().size()) {
+                    picked.add(entry.getValue().get(taken[t]++));
+                }
+            }
+        }
+        Map<BankQuestion, Integer> position = new IdentityHashMap<>();
+        for (int i = 0; i < pool.size(); i++) {
+            position.put(pool.get(i), i);
+        }
+        picked.sort(Comparator.comparingInt(position::get));
+        return picked;
+    }
+
+    private static BankQuestion toBank(Question question, String videoKey, String transcriptHash, String difficulty) {
+        BankQuestion bank = new BankQuestion();
+        bank.setVideoKey(videoKey);
+        bank.setTranscriptHash(transcriptHash);
+        bank.setDifficulty(difficulty);
+        bank.setType(question.getType());
+        bank.setText(question.getText());
+        bank.setOptions(question.getOptions());
+        bank.setCorrectAnswer(question.getCorrectAnswer());
+        bank.setQueryEmbedding(question.getQueryEmbedding());
+        return bank;
+    }
+
+    private static Question toQuestion(BankQuestion bank) {
+        Question question = new Question();
+        question.setType(bank.getType());
+        question.setText(bank.getText());
+        question.setOptions(bank.getOptions());
+        question.setCorrectAnswer(bank.getCorrectAnswer());
+        question.setQueryEmbedding(bank.getQueryEmbedding());
+        return question;
+    }
+
+    private static String difficultyName(DifficultyLevel difficulty) {
+        return (difficulty != null ? difficulty : DifficultyLevel.NORMAL).name();
+    }
+}
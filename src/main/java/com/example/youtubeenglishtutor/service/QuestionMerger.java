@@ -0,0 +1,146 @@
+package com.example.youtubeenglishtutor.service;
+
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Combines per-segment question lists into one quiz: near-duplicates are dropped, each segment keeps up to its
+ * quota so the whole video stays covered, and leftovers fill any gap. Output is in segment (i.e. video) order.
+ */
+final class QuestionMerger {
+
+    private static final double DUPLICATE_JACCARD = 0.8;
+
+    private QuestionMerger() {
+    }
+
+    /**
+     * Splits {@code total} across segments proportionally to their lengths (largest remainder), at least one
+     * per segment while {@code total} allows.
+     */
+    static int[] allocate(int[] segmentLengths, int total) {
+        int n = segmentLengths.length;
+        int[] quotas = new int[n];
+        if (n == 0 || total <= 0) {
+            return quotas;
+        }
+        long sum = 0;
+        for (int len : segmentLengths) {
+            sum += Math.max(1, len);
+        }
+        double[] remainders = new double[n];
+        int assigned = 0;
+        for (int i = 0; i < n; i++) {
+            double exact = (double) total * Math.max(1, segmentLengths[i]) / sum;
+            quotas[i] = (int) Math.floor(exact);
+            remainders[i] = exact - quotas[i];
+            assigned += quotas[i];
+        }
+        while (assigned < total) {
+            int best = 0;
+            for (int i = 1; i < n; i++) {
+                if (remainders[i] > remainders[best]) {
+                    best = i;
+                }
+            }
+            quotas[best]++;
+            remainders[best] = -1;
+            assigned++;
+        }
+        // Move single questions from the largest quotas to empty segments so every part of the video is asked about.
+        for (int i = 0; i < n && total >= n; i++) {
+            if (quotas[i] == 0) {
+                int donor = 0;
+                for (int j = 1; j < n; j++) {
+                    if (quotas[j] > quotas[donor]) {
+                        donor = j;
+                    }
+                }
+                quotas[donor]--;
+                quotas[i]++;
+            }
+        }
+        return quotas;
+    }
+
+    static List<Question> merge(List<List<Question>> perSegment, int[] quotas, int count, boolean keepWriting) {
+        List<Set<String>> seen = new ArrayList<>();
+        List<List<Question>> unique = new ArrayList<>();
+        for (List<Question> segment : perSegment) {
+            List<Question> kept = new ArrayList<>();
+            for (Question q : segment) {
+                Set<String> tokens = tokens(q.getText());
+                if (tokens.isEmpty() || seen.stream().anyMatch(other -> nearDuplicate(tokens, other))) {
+                    continue;
+                }
+                seen.add(tokens);
+                kept.add(q);
+            }
+            unique.add(kept);
+        }
+
+        List<List<Question>> selected = new ArrayList<>();
+        int total = 0;
+        for (int s = 0; s < unique.size(); s++) {
+            int quota = s < quotas.length ? quotas[s] : 0;
+            List<Question> segment = unique.get(s);
+            selected.add(new ArrayList<>(segment.subList(0, Math.min(quota, segment.size()))));
+            total += selected.get(s).size();
+        }
+        // Fill shortfalls from leftovers, one per segment per round to keep coverage even.
+        boolean added = true;
+        while (total < count && added) {
+            added = false;
+            for (int s = 0; s < unique.size() && total < count; s++) {
+                List<Question> segment = unique.get(s);
+                if (selected.get(s).size() < segment.size()) {
+                    selected.get(s).add(segment.get(selected.get(s).size()));
+                    total++;
+                    added = true;
+                }
+            }
+        }
+
+        List<Question> merged = new ArrayList<>();
+        selected.forEach(merged::addAll);
+        if (keepWriting && merged.stream().noneMatch(QuestionMerger::isWriting)) {
+            unique.stream().flatMap(List::stream).filter(QuestionMerger::isWriting).findFirst().ifPresent(writing -> {
+                if (merged.size() >= count && !merged.isEmpty()) {
+                    merged.remove(merged.size() - 1);
+                }
+                merged.add(writing);
+            });
+        }
+        return merged.size() > count ? new ArrayList<>(merged.subList(0, count)) : merged;
+    }
+
+    private static boolean isWriting(Question q) {
+        return q.getType() == QuestionType.WRITING;
+    }
+
+    static Set<String> tokens(String text) {
+        return new HashSet<>(Bm25Index.tokenize(text));
+    }
+
+    /**
+     * Whether two questions (as {@link #tokens} sets) ask essentially the same thing.
+     */
+    static boolean nearDuplicate(Set<String> a, Set<String> b) {
+        return jaccard(a, b) >= DUPLICATE_JACCARD;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        int intersection = 0;
+        for (String t : a) {
+            if (b.contains(t)) {
+                intersection++;
+            }
+        }
+        int union = a.size() + b.size() - intersection;
+        return union == 0 ? 0 : (double) intersection / union;
+    }
+}
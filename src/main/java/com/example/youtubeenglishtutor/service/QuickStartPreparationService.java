@@ -8,6 +8,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.example.youtubeenglishtutor.web.LearnerContext;
 import org.slf4j.Logger;
@@ -19,17 +20,25 @@ public class QuickStartPreparationService {
 
     private static final Logger log = LoggerFactory.getLogger(QuickStartPreparationService.class);
 
-    public record Status(String state, Long testId, String error) {
+    /**
+     * {@code questionsReady} counts questions generated so far, so the watch page can show progress while a
+     * streamed generation is still running.
+     */
+    public record Status(String state, Long testId, String error, int questionsReady) {
         public static Status pending() {
-            return new Status("PENDING", null, null);
+            return pending(0);
+        }
+
+        public static Status pending(int questionsReady) {
+            return new Status("PENDING", null, null, questionsReady);
         }
 
         public static Status ready(long testId) {
-            return new Status("READY", testId, null);
+            return new Status("READY", testId, null, 0);
         }
 
         public static Status error(String message) {
-            return new Status("ERROR", null, message);
+            return new Status("ERROR", null, message, 0);
         }
     }
 
@@ -38,6 +47,7 @@ public class QuickStartPreparationService {
     private final ExecutorService executor = Executors.newFixedThreadPool(2);
     private final Map<String, CompletableFuture<Status>> futuresByPrepId = new ConcurrentHashMap<>();
     private final Map<String, String> prepIdByKey = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> questionsReadyByPrepId = new ConcurrentHashMap<>();
 
     public QuickStartPreparationService(TestService testService, LearnerContext learnerContext) {
         this.testService = testService;
@@ -56,11 +66,13 @@ public class QuickStartPreparationService {
         log.info("Quick-start prep: start prepId={} learnerId={} videoUrl={} desiredSize={}", prepId, learnerId, videoUrl, desiredSize);
 
         final String learnerIdForFuture = learnerId; // Capture the learnerId for use in the lambda
+        AtomicInteger questionsReady = new AtomicInteger();
+        questionsReadyByPrepId.put(prepId, questionsReady);
         CompletableFuture<Status> future = CompletableFuture.supplyAsync(() -> {
             // Set learnerId for this thread's context
             learnerContext.setCurrentLearnerId(learnerIdForFuture);
             try {
-                Test test = testService.createTest(videoUrl, null, true, desiredSize);
+                Test test = testService.createTest(videoUrl, null, true, desiredSize, q -> questionsReady.incrementAndGet());
                 log.info("Quick-start prep: ready prepId={} testId={}", prepId, test.getId());
                 return Status.ready(test.getId());
             } catch (Exception e) {
@@ -90,7 +102,8 @@ public class QuickStartPreparationService {
             return Status.error("Unknown preparation id.");
         }
         if (!future.isDone()) {
-            return Status.pending();
+            AtomicInteger questionsReady = questionsReadyByPrepId.get(prepId);
+            return Status.pending(questionsReady != null ? questionsReady.get() : 0);
         }
         try {
             return future.getNow(Status.pending());
@@ -1,17 +1,34 @@
 package com.example.youtubeenglishtutor.service;
 
+import com.example.youtubeenglishtutor.entity.CatalogTranscriptChunk;
 import com.example.youtubeenglishtutor.entity.Question;
 import com.example.youtubeenglishtutor.entity.Test;
 import com.example.youtubeenglishtutor.entity.TranscriptChunk;
+import com.example.youtubeenglishtutor.repository.CatalogTranscriptChunkRepository;
 import com.example.youtubeenglishtutor.repository.TranscriptChunkRepository;
 import com.example.youtubeenglishtutor.web.LearnerContext;
 import com.example.youtubeenglishtutor.service.ObservabilityService;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -19,94 +36,285 @@ import org.springframework.util.StringUtils;
 @Service
 public class RagService {
 
+    private static final Logger log = LoggerFactory.getLogger(RagService.class);
+
+    private static final String NO_TRANSCRIPT = "No transcript available";
+
     private final TranscriptChunkRepository chunkRepository;
+    private final CatalogTranscriptChunkRepository catalogChunkRepository;
     private final EmbeddingService embeddingService;
     private final ObservabilityService observabilityService;
     private final LearnerContext learnerContext;
+    private final VectorIndexCache indexCache;
+    private final TranscriptChunker chunker;
+    private final SingleFlight singleFlight;
+    private final DotProductKernel scoreKernel;
     private final int maxSnippetLength;
+    private final int topK;
+    private final boolean mmrEnabled;
+    private final double mmrLambda;
+    private final int mmrCandidates;
+    private final RetrievalStrategy strategy;
+    private final double hybridAlpha;
+    private final long embeddingDeadlineMs;
+    private final boolean quantize;
+    private final int rescoreCandidates;
+    private final ExecutorService embeddingExecutor;
 
     public RagService(
             TranscriptChunkRepository chunkRepository,
+            CatalogTranscriptChunkRepository catalogChunkRepository,
             EmbeddingService embeddingService,
             ObservabilityService observabilityService,
             LearnerContext learnerContext,
-            @Value("${app.rag.max-snippet-length:400}") int maxSnippetLength) {
+            VectorIndexCache indexCache,
+            TranscriptChunker chunker,
+            SingleFlight singleFlight,
+            @Value("${app.rag.max-snippet-length:400}") int maxSnippetLength,
+            @Value("${app.rag.top-k:5}") int topK,
+            @Value("${app.rag.mmr.enabled:false}") boolean mmrEnabled,
+            @Value("${app.rag.mmr.lambda:0.7}") double mmrLambda,
+            @Value("${app.rag.mmr.candidates:20}") int mmrCandidates,
+            @Value("${app.rag.strategy:VECTOR}") RetrievalStrategy strategy,
+            @Value("${app.rag.hybrid.alpha:0.7}") double hybridAlpha,
+            @Value("${app.rag.embedding-deadline-ms:1500}") long embeddingDeadlineMs,
+            @Value("${app.rag.embedding-pool-size:4}") int embeddingPoolSize,
+            @Value("${app.rag.embedding-queue-capacity:32}") int embeddingQueueCapacity,
+            @Value("${app.rag.quantization.enabled:false}") boolean quantize,
+            @Value("${app.rag.quantization.rescore-candidates:50}") int rescoreCandidates,
+            @Value("${app.rag.vector-kernel:auto}") String vectorKernel) {
         this.chunkRepository = chunkRepository;
+        this.catalogChunkRepository = catalogChunkRepository;
         this.embeddingService = embeddingService;
         this.observabilityService = observabilityService;
         this.learnerContext = learnerContext;
+        this.indexCache = indexCache;
+        this.chunker = chunker;
+        this.singleFlight = singleFlight;
         this.maxSnippetLength = maxSnippetLength;
+        this.topK = Math.max(1, topK);
+        this.mmrEnabled = mmrEnabled;
+        this.mmrLambda = Math.max(0.0, Math.min(1.0, mmrLambda));
+        this.mmrCandidates = mmrCandidates;
+        this.strategy = strategy;
+        this.hybridAlpha = Math.max(0.0, Math.min(1.0, hybridAlpha));
+        this.embeddingDeadlineMs = embeddingDeadlineMs;
+        // Bounded so an embedding outage (calls outliving their deadline) can't pile up work; overflow goes lexical.
+        int poolSize = Math.max(1, embeddingPoolSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.embeddingExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, embeddingQueueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "rag-query-embed-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.quantize = quantize;
+        this.rescoreCandidates = Math.max(1, rescoreCandidates);
+        this.scoreKernel = DotProductKernels.forName(vectorKernel);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        embeddingExecutor.shutdownNow();
     }
 
     public String findBestSnippet(Test test, Question question) {
+        return findBestSnippets(test, List.of(question)).get(question.getId());
+    }
+
+    /**
+     * Finds the best transcript snippet for each question with one index lookup, at most one embedding request
+     * and a single pass over the chunk matrix. Returns snippets keyed by question id, in input order.
+     * Questions whose query vector is not available within the embedding deadline are ranked by BM25 alone.
+     */
+    public Map<Long, String> findBestSnippets(Test test, List<Question> questions) {
+        Map<Long, String> snippets = new LinkedHashMap<>();
+        if (questions.isEmpty()) {
+            return snippets;
+        }
         long start = System.nanoTime();
-        List<TranscriptChunk> chunks = chunkRepository.findByTestId(test.getId());
-        if (chunks.isEmpty()) {
-            return "No transcript available";
+        VectorIndex index = loadIndex(test);
+        if (index.isEmpty()) {
+            questions.forEach(q -> snippets.put(q.getId(), NO_TRANSCRIPT));
+            return snippets;
         }
-        String queryText = buildQuery(question);
-        List<Double> queryEmbedding = embeddingService.embed(queryText);
-        List<ScoredChunk> scored = new ArrayList<>();
-        for (TranscriptChunk chunk : chunks) {
-            double score = cosine(queryEmbedding, parseEmbedding(chunk.getEmbedding()));
-            scored.add(new ScoredChunk(chunk, score));
+        float[][] queries = strategy == RetrievalStrategy.LEXICAL
+                ? new float[questions.size()][]
+                : queryVectors(questions, index.dimension());
+        float[][] vectorScores = strategy == RetrievalStrategy.LEXICAL ? null : scoreAll(index, queries);
+        if (vectorScores != null && index.isQuantized()) {
+            rescore(test, index, queries, vectorScores);
+        }
+
+        Map<Long, List<Map<String, Object>>> topKByQuestion = new LinkedHashMap<>();
+        boolean anyEmpty = false;
+        boolean fellBack = false;
+        for (int q = 0; q < questions.size(); q++) {
+            Question question = questions.get(q);
+            float[] scores;
+            if (queries[q] == null) {
+                fellBack |= strategy != RetrievalStrategy.LEXICAL;
+                scores = index.lexical().score(buildQuery(question));
+            } else if (strategy == RetrievalStrategy.HYBRID) {
+                scores = fuse(vectorScores[q], index.lexical().score(buildQuery(question)));
+            } else {
+                scores = vectorScores[q];
+            }
+            int[] top = selectTop(index, queries[q], scores);
+            String best = top.length == 0 ? null : index.content(top[0], maxSnippetLength + 1);
+            anyEmpty |= best == null;
+            topKByQuestion.put(question.getId(), toPayload(index, top, scores));
+            snippets.put(question.getId(), StringUtils.hasText(best) ? abbreviate(best.trim(), maxSnippetLength) : NO_TRANSCRIPT);
         }
-        scored.sort(Comparator.comparingDouble(ScoredChunk::score).reversed());
-        TranscriptChunk best = scored.isEmpty() ? null : scored.get(0).chunk();
 
         long latencyMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
         // Capture retrieval observability without blocking user flow.
-        observabilityService.logRetrievalEvent(
+        observabilityService.logBatchRetrievalEvent(
                 learnerContext.getCurrentLearnerId(),
                 test.getId(),
-                question.getId(),
-                toPayload(scored, 5),
+                topKByQuestion,
                 latencyMs,
-                best == null,
-                "VECTOR");
+                anyEmpty,
+                fellBack ? strategy.name() + "_LEXICAL_FALLBACK" : strategy.name());
+        return snippets;
+    }
+
+    /**
+     * Compares exact, int8 and int8-plus-rescore ranking for a test's questions on its chunk set, bypassing
+     * the index cache. Returns null when the test has no chunks.
+     */
+    public QuantizationReport quantizationReport(Test test, int k) {
+        VectorIndex exact = readIndex(test, false);
+        if (exact.isEmpty()) {
+            return null;
+        }
+        VectorIndex quantized = readIndex(test, true);
+        float[][] queries = Arrays.stream(queryVectors(test.getQuestions(), exact.dimension()))
+                .filter(v -> v != null && v.length == exact.dimension())
+                .toArray(float[][]::new);
+        return QuantizationReport.run(exact, quantized, queries, Math.max(1, k), Math.max(k, rescoreCandidates), scoreKernel);
+    }
 
-        if (best == null || !StringUtils.hasText(best.getContent())) {
-            return "No transcript available";
+    /**
+     * Computes and stores the retrieval query vector on every question that lacks a usable one, in one
+     * embedding request. Best effort: on failure the questions are left as-is and retrieval embeds live.
+     */
+    public void embedQuestions(List<Question> questions) {
+        List<Question> missing = questions.stream()
+                .filter(q -> !hasUsableQueryEmbedding(q, -1))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
         }
-        return abbreviate(best.getContent().trim(), maxSnippetLength);
+        try {
+            List<List<Double>> embeddings = embeddingService.embedAll(missing.stream().map(this::buildQuery).toList());
+            for (int i = 0; i < missing.size(); i++) {
+                missing.get(i).setQueryEmbedding(EmbeddingCodec.encode(VectorMath.normalized(embeddings.get(i)), embeddingService.modelName()));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to precompute question embeddings for {} question(s): {}", missing.size(), e.getMessage());
+        }
+    }
+
+    private void evictIndex(Long testId) {
+        indexCache.invalidate(indexKey(testId));
     }
 
-    public void saveChunks(Test test, String transcript, int chunkSize, int overlap) {
+    /**
+     * A transcript cut into chunks with their embeddings, ready to be stored for a test.
+     */
+    public record EmbeddedChunks(String transcript, List<TranscriptChunker.Chunk> parts, List<List<Double>> embeddings) {
+    }
+
+    public void saveChunks(Test test, String transcript) {
+        saveChunks(test, embedChunks(transcript));
+    }
+
+    /**
+     * Chunks and embeds a transcript without touching the database, so callers can do the slow part before
+     * opening a transaction. Learners creating tests on the same transcript at once share one embedding run.
+     */
+    public EmbeddedChunks embedChunks(String transcript) {
+        List<TranscriptChunker.Chunk> parts = chunker.chunk(transcript);
+        List<List<Double>> embeddings = singleFlight.run(
+                "chunks:" + embeddingService.modelName() + ":" + ContentHashes.sha256Hex(transcript),
+                () -> embeddingService.embedAll(parts.stream().map(TranscriptChunker.Chunk::text).toList()));
+        return new EmbeddedChunks(transcript, parts, embeddings);
+    }
+
+    public void saveChunks(Test test, EmbeddedChunks embedded) {
         chunkRepository.deleteByTestId(test.getId());
-        List<String> parts = chunkTranscript(transcript, chunkSize, overlap);
-        List<TranscriptChunk> chunks = parts.stream()
-                .map(part -> buildChunk(test, part))
-                .collect(Collectors.toList());
-        chunkRepository.saveAll(chunks);
+        List<TranscriptChunk> chunks = new ArrayList<>(embedded.parts().size());
+        for (int i = 0; i < embedded.parts().size(); i++) {
+            chunks.add(buildChunk(test, embedded.parts().get(i), embedded.embeddings().get(i)));
+        }
+        List<TranscriptChunk> saved = chunkRepository.saveAll(chunks);
+        evictIndex(test.getId());
+        // Build the vector and BM25 index now, while the rows are in hand, so the first result page is warm.
+        indexCache.getOrBuild(indexKey(test.getId()), () -> buildIndex(embedded.transcript(), saved));
     }
 
-    private TranscriptChunk buildChunk(Test test, String content) {
-        TranscriptChunk chunk = new TranscriptChunk();
-        chunk.setTest(test);
-        chunk.setContent(content);
-        List<Double> embedding = embeddingService.embed(content);
-        chunk.setEmbedding(toString(embedding));
-        return chunk;
+    /**
+     * Tests created from a prewarmed catalog video read the shared, immutable catalog chunk set; every learner
+     * on that video hits the same cached index. Other tests read their own transcript_chunks rows.
+     */
+    private VectorIndex loadIndex(Test test) {
+        String key = test.usesSharedChunks()
+                ? catalogIndexKey(test.getCatalogVideoId(), test.getChunkSetVersion())
+                : indexKey(test.getId());
+        return indexCache.getOrBuild(key, () -> readIndex(test, quantize));
     }
 
-    private List<String> chunkTranscript(String transcript, int size, int overlap) {
-        if (!StringUtils.hasText(transcript)) {
-            return List.of();
+    private VectorIndex readIndex(Test test, boolean quantized) {
+        String transcript = test.getTranscript();
+        VectorIndex.Builder builder = VectorIndex.builder().quantized(quantized).source(transcript);
+        if (test.usesSharedChunks()) {
+            for (CatalogTranscriptChunk chunk : catalogChunkRepository.findByCatalogVideoIdAndTranscriptVersionOrderByIdAsc(test.getCatalogVideoId(), test.getChunkSetVersion())) {
+                addChunk(builder, transcript, chunk.getId(), chunk.getStartOffset(), chunk.getEndOffset(), chunk.getContent(), chunk.getEmbeddingVector());
+            }
+        } else {
+            for (TranscriptChunk chunk : chunkRepository.findByTestId(test.getId())) {
+                addChunk(builder, transcript, chunk.getId(), chunk.getStartOffset(), chunk.getEndOffset(), chunk.getContent(), chunk.getEmbeddingVector());
+            }
         }
-        String normalized = transcript.replaceAll("\\s+", " ").trim();
-        if (normalized.length() <= size) {
-            return List.of(normalized);
+        return builder.build();
+    }
+
+    private VectorIndex buildIndex(String transcript, List<TranscriptChunk> chunks) {
+        VectorIndex.Builder builder = VectorIndex.builder().quantized(quantize).source(transcript);
+        for (TranscriptChunk chunk : chunks) {
+            addChunk(builder, transcript, chunk.getId(), chunk.getStartOffset(), chunk.getEndOffset(), chunk.getContent(), chunk.getEmbeddingVector());
         }
-        int step = Math.max(50, size - overlap);
-        List<String> parts = new java.util.ArrayList<>();
-        for (int start = 0; start < normalized.length(); start += step) {
-            int end = Math.min(normalized.length(), start + size);
-            parts.add(normalized.substring(start, end));
-            if (end == normalized.length()) {
-                break;
-            }
+        return builder.build();
+    }
+
+    /**
+     * Offset rows reference the transcript; rows written before offsets existed carry their own content.
+     */
+    private void addChunk(VectorIndex.Builder builder, String transcript, Long id, Integer start, Integer end, String content, byte[] vector) {
+        if (start != null && end != null && transcript != null && start >= 0 && start <= end && end <= transcript.length()) {
+            builder.addSpan(id, start, end, EmbeddingCodec.decode(vector));
+        } else {
+            builder.add(id, content, EmbeddingCodec.decode(vector));
         }
-        return parts.stream().filter(p -> !p.isBlank()).collect(Collectors.toList());
+    }
+
+    private String indexKey(Long testId) {
+        return "test:" + testId;
+    }
+
+    static String catalogIndexKey(Long catalogVideoId, String chunkSetVersion) {
+        return "catalog:" + catalogVideoId + ":" + chunkSetVersion;
+    }
+
+    private TranscriptChunk buildChunk(Test test, TranscriptChunker.Chunk part, List<Double> embedding) {
+        TranscriptChunk chunk = new TranscriptChunk();
+        chunk.setTest(test);
+        chunk.setStartOffset(part.start());
+        chunk.setEndOffset(part.end());
+        chunk.setEmbeddingVector(EmbeddingCodec.encode(VectorMath.normalized(embedding), embeddingService.modelName()));
+        return chunk;
     }
 
     private String buildQuery(Question question) {
@@ -120,41 +328,175 @@ public class RagService {
         return sb.toString().trim();
     }
 
-    private List<Double> parseEmbedding(String stored) {
-        if (!StringUtils.hasText(stored)) {
-            return List.of();
+    /**
+     * Top {@code top-k} rows by score via a bounded heap. With MMR enabled, the top {@code mmr.candidates} rows
+     * are re-ranked for diversity so overlapping chunks do not crowd out the rest; the best hit is unchanged.
+     */
+    private int[] selectTop(VectorIndex index, float[] query, float[] rowScores) {
+        if (!mmrEnabled || query == null || query.length != index.dimension()) {
+            return TopKSelector.select(rowScores, topK);
         }
-        String[] parts = stored.split(",");
-        return java.util.Arrays.stream(parts)
-                .map(String::trim)
-                .filter(StringUtils::hasText)
-                .map(Double::parseDouble)
-                .collect(Collectors.toList());
+        int[] candidates = TopKSelector.select(rowScores, Math.max(topK, mmrCandidates));
+        return MmrReranker.rerank(index, candidates, rowScores, topK, mmrLambda);
     }
 
-    private String toString(List<Double> embedding) {
-        return embedding.stream()
-                .map(d -> String.format(java.util.Locale.US, "%.6f", d))
-                .collect(Collectors.joining(","));
+    /**
+     * Replaces the approximate int8 scores of each query's top {@code rescore-candidates} rows with exact scores
+     * from the stored float32 vectors, fetched in one query for the whole page. On failure the approximate
+     * scores stand.
+     */
+    private void rescore(Test test, VectorIndex index, float[][] queries, float[][] scores) {
+        Map<Integer, int[]> candidatesByQuery = new LinkedHashMap<>();
+        Set<Long> chunkIds = new HashSet<>();
+        for (int q = 0; q < queries.length; q++) {
+            if (queries[q] == null || queries[q].length != index.dimension()) {
+                continue;
+            }
+            int[] rows = TopKSelector.select(scores[q], rescoreCandidates);
+            candidatesByQuery.put(q, rows);
+            for (int row : rows) {
+                chunkIds.add(index.chunkId(row));
+            }
+        }
+        if (chunkIds.isEmpty()) {
+            return;
+        }
+        Map<Long, float[]> exact = new HashMap<>();
+        try {
+            if (test.usesSharedChunks()) {
+                catalogChunkRepository.findAllById(chunkIds).forEach(c -> exact.put(c.getId(), EmbeddingCodec.decode(c.getEmbeddingVector())));
+            } else {
+                chunkRepository.findAllById(chunkIds).forEach(c -> exact.put(c.getId(), EmbeddingCodec.decode(c.getEmbeddingVector())));
+            }
+        } catch (Exception e) {
+            log.warn("Full-precision rescoring skipped for test {}: {}", test.getId(), e.getMessage());
+            return;
+        }
+        candidatesByQuery.forEach((q, rows) -> {
+            for (int row : rows) {
+                float[] vector = exact.get(index.chunkId(row));
+                if (vector != null && vector.length == index.dimension()) {
+                    scores[q][row] = ScalarDotProductKernel.dot(queries[q], VectorMath.normalize(vector), 0, vector.length);
+                }
+            }
+        });
     }
 
-    private double cosine(List<Double> a, List<Double> b) {
-        if (a == null || b == null || a.isEmpty() || b.isEmpty()) {
-            return -1;
+    /**
+     * Scores every query against every row in one pass over the matrix. Both sides are unit length, so the dot
+     * product is the cosine similarity. Queries whose dimension does not match the index score -1 everywhere.
+     */
+    private float[][] scoreAll(VectorIndex index, float[][] queries) {
+        int dimension = index.dimension();
+        float[][] scores = new float[queries.length][index.size()];
+        List<Integer> usable = new ArrayList<>(queries.length);
+        for (int q = 0; q < queries.length; q++) {
+            if (queries[q] != null && queries[q].length == dimension) {
+                usable.add(q);
+            } else {
+                Arrays.fill(scores[q], -1f);
+            }
         }
-        int len = Math.min(a.size(), b.size());
-        double dot = 0;
-        double normA = 0;
-        double normB = 0;
-        for (int i = 0; i < len; i++) {
-            double x = a.get(i);
-            double y = b.get(i);
-            dot += x * y;
-            normA += x * x;
-            normB += y * y;
+        if (usable.size() == queries.length) {
+            index.scoreAll(queries, scoreKernel, scores);
+        } else if (!usable.isEmpty()) {
+            float[][] subset = new float[usable.size()][];
+            float[][] subsetScores = new float[usable.size()][];
+            for (int i = 0; i < usable.size(); i++) {
+                subset[i] = queries[usable.get(i)];
+                subsetScores[i] = scores[usable.get(i)];
+            }
+            index.scoreAll(subset, scoreKernel, subsetScores);
+        }
+        return scores;
+    }
+
+    /**
+     * Stored query vectors where they match the index; the rest are embedded in a single batched request.
+     * Slots stay null when that request fails, misses the embedding deadline or returns vectors of another
+     * dimension than the index.
+     */
+    private float[][] queryVectors(List<Question> questions, int dimension) {
+        float[][] queries = new float[questions.size()][];
+        List<Integer> missing = new ArrayList<>();
+        for (int q = 0; q < questions.size(); q++) {
+            Question question = questions.get(q);
+            if (hasUsableQueryEmbedding(question, dimension)) {
+                queries[q] = VectorMath.normalize(EmbeddingCodec.decode(question.getQueryEmbedding()));
+            } else {
+                missing.add(q);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<String> texts = missing.stream().map(q -> buildQuery(questions.get(q))).toList();
+            List<List<Double>> embeddings = embedWithinDeadline(texts);
+            if (embeddings != null) {
+                for (int i = 0; i < missing.size(); i++) {
+                    if (embeddings.get(i).size() != dimension) {
+                        // Index built with another embedding model; leave the slot null so BM25 ranks it.
+                        log.warn("Query embedding has {} dimensions but the index has {}; using lexical retrieval", embeddings.get(i).size(), dimension);
+                        continue;
+                    }
+                    queries[missing.get(i)] = VectorMath.normalized(embeddings.get(i));
+                }
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Runs the embedding call with {@code app.rag.embedding-deadline-ms} as an upper bound (0 waits indefinitely).
+     * A late call keeps running in the background, so its vectors still land in the embedding cache; when the
+     * bounded pool and queue are full the call is not made at all.
+     */
+    private List<List<Double>> embedWithinDeadline(List<String> texts) {
+        CompletableFuture<List<List<Double>>> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> embeddingService.embedAll(texts), embeddingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Query embedding queue full; using lexical retrieval for {} question(s)", texts.size());
+            return null;
+        }
+        try {
+            return embeddingDeadlineMs > 0 ? future.get(embeddingDeadlineMs, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            log.warn("Query embedding exceeded {} ms for {} question(s); using lexical retrieval", embeddingDeadlineMs, texts.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.warn("Query embedding failed for {} question(s); using lexical retrieval: {}", texts.size(), e.getCause().getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Weighted fusion of cosine similarity and max-normalized BM25, both on a 0..1-ish scale.
+     */
+    private float[] fuse(float[] vectorScores, float[] lexicalScores) {
+        float max = 0f;
+        for (float s : lexicalScores) {
+            max = Math.max(max, s);
+        }
+        float alpha = (float) hybridAlpha;
+        float[] fused = new float[vectorScores.length];
+        for (int row = 0; row < fused.length; row++) {
+            float lexical = max > 0 ? lexicalScores[row] / max : 0f;
+            fused[row] = alpha * vectorScores[row] + (1 - alpha) * lexical;
+        }
+        return fused;
+    }
+
+    private boolean hasUsableQueryEmbedding(Question question, int dimension) {
+        byte[] stored = question.getQueryEmbedding();
+        if (stored == null || stored.length == 0) {
+            return false;
+        }
+        try {
+            return embeddingService.modelName().equals(EmbeddingCodec.model(stored))
+                    && (dimension < 0 || EmbeddingCodec.dimension(stored) == dimension);
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        double denom = Math.sqrt(normA) * Math.sqrt(normB) + 1e-9;
-        return dot / denom;
     }
 
     private String abbreviate(String text, int maxLen) {
@@ -164,17 +506,14 @@ public class RagService {
         return text.substring(0, maxLen) + "...";
     }
 
-    private List<Map<String, Object>> toPayload(List<ScoredChunk> scored, int limit) {
-        List<Map<String, Object>> list = new ArrayList<>();
-        for (ScoredChunk sc : scored.stream().limit(limit).toList()) {
+    private List<Map<String, Object>> toPayload(VectorIndex index, int[] rows, float[] rowScores) {
+        List<Map<String, Object>> list = new ArrayList<>(rows.length);
+        for (int row : rows) {
             java.util.Map<String, Object> map = new java.util.HashMap<>();
-            map.put("chunkId", sc.chunk().getId());
-            map.put("score", sc.score());
+            map.put("chunkId", index.chunkId(row));
+            map.put("score", (double) rowScores[row]);
             list.add(map);
         }
         return list;
     }
-
-    private record ScoredChunk(TranscriptChunk chunk, double score) {
-    }
 }
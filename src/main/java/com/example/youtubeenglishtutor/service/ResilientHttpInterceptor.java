@@ -0,0 +1,236 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Per-endpoint retry, deadline, circuit breaking and latency accounting for outbound calls. Must be the last
+ * interceptor so each retry re-executes only the underlying request.
+ *
+ * <p>Connection failures, timeouts and 429/502/503/504 responses are retried with jittered exponential backoff
+ * (Retry-After wins when longer) while attempts remain and the next try still fits in the deadline. Only
+ * idempotent methods are retried, unless the endpoint declares its POSTs side-effect free. 429s don't count
+ * against the circuit breaker: throttling means the upstream is up.
+ *
+ * <p>Each retry is charged through {@code retryCharge} (the OpenAI rate limiter for OpenAI endpoints; callers
+ * charge the first attempt themselves). Code that retries on its own, like {@link JobPipeline}, runs inside
+ * {@link #singleAttempt()} so attempts don't multiply.
+ */
+final class ResilientHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientHttpInterceptor.class);
+    private static final Set<Integer> RETRY_STATUSES = Set.of(429, 502, 503, 504);
+    private static final Set<HttpMethod> IDEMPOTENT = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+    private static final long[] LATENCY_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+    private static final ThreadLocal<Boolean> SINGLE_ATTEMPT = ThreadLocal.withInitial(() -> false);
+
+    record Policy(int maxAttempts, long backoffMillis, long deadlineMillis, boolean retryPost) {
+    }
+
+    private final String endpoint;
+    private final Policy policy;
+    private final CircuitBreaker breaker;
+    private final Consumer<byte[]> retryCharge;
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BOUNDS_MS.length + 1);
+
+    ResilientHttpInterceptor(String endpoint, Policy policy, CircuitBreaker breaker, Consumer<byte[]> retryCharge) {
+        this.endpoint = endpoint;
+        this.policy = policy;
+        this.breaker = breaker;
+        this.retryCharge = retryCharge != null ? retryCharge : body -> { };
+    }
+
+    /**
+     * Disables in-client retries on this thread until the returned scope is closed.
+     */
+    static Scope singleAttempt() {
+        boolean previous = SINGLE_ATTEMPT.get();
+        SINGLE_ATTEMPT.set(true);
+        return () -> SINGLE_ATTEMPT.set(previous);
+    }
+
+    /**
+     * Wraps work handed to another thread (e.g. a fan-out executor) so it keeps the caller's retry scope.
+     */
+    static <T> Supplier<T> inheritingScope(Supplier<T> work) {
+        if (!SINGLE_ATTEMPT.get()) {
+            return work;
+        }
+        return () -> {
+            try (Scope ignored = singleAttempt()) {
+                return work.get();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        boolean retryable = !SINGLE_ATTEMPT.get() && (policy.retryPost() || IDEMPOTENT.contains(request.getMethod()));
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            if (attempt > 1) {
+                retryCharge.accept(body);
+            }
+            if (!breaker.tryAcquire(System.currentTimeMillis())) {
+                shortCircuited.incrementAndGet();
+                throw new CircuitOpenException(endpoint);
+            }
+            long attemptStart = System.nanoTime();
+            attempts.incrementAndGet();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                record(attemptStart);
+                failures.incrementAndGet();
+                breaker.onFailure(System.currentTimeMillis());
+                long delay = retryDelay(retryable, attempt, start, -1);
+                if (delay < 0) {
+                    throw e;
+                }
+                log.info("{} {} failed (attempt {}/{}), retrying in {} ms: {}", endpoint, request.getMethod(), attempt, policy.maxAttempts(), delay, e.getMessage());
+                pause(delay);
+                continue;
+            }
+            record(attemptStart);
+            int status = response.getStatusCode().value();
+            if (!RETRY_STATUSES.contains(status) && status < 500) {
+                breaker.onSuccess();
+                return response;
+            }
+            failures.incrementAndGet();
+            if (status == 429) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure(System.currentTimeMillis());
+            }
+            long delay = RETRY_STATUSES.contains(status)
+                    ? retryDelay(retryable, attempt, start, retryAfterMillis(response))
+                    : -1;
+            if (delay < 0) {
+                return response;
+            }
+            response.close();
+            log.info("{} {} returned {} (attempt {}/{}), retrying in {} ms", endpoint, request.getMethod(), status, attempt, policy.maxAttempts(), delay);
+            pause(delay);
+        }
+    }
+
+    /**
+     * Milliseconds to wait before the next attempt, or -1 when the call should not be retried.
+     */
+    private long retryDelay(boolean retryable, int attempt, long startMillis, long retryAfterMillis) {
+        if (!retryable || attempt >= policy.maxAttempts()) {
+            return -1;
+        }
+        long ceiling = policy.backoffMillis() << Math.min(attempt - 1, 20);
+        long delay = Math.max(ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1), retryAfterMillis);
+        long elapsed = System.currentTimeMillis() - startMillis;
+        if (elapsed + delay >= policy.deadlineMillis()) {
+            return -1;
+        }
+        retries.incrementAndGet();
+        return delay;
+    }
+
+    private static long retryAfterMillis(ClientHttpResponse response) {
+        String value = response.getHeaders().getFirst("Retry-After");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value.trim()) * 1000));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void pause(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while backing off", e);
+        }
+    }
+
+    private void record(long startNanos) {
+        long ms = (System.nanoTime() - startNanos) / 1_000_000;
+        totalMillis.addAndGet(ms);
+        maxMillis.accumulateAndGet(ms, Math::max);
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS_MS.length && ms > LATENCY_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+    }
+
+    Map<String, Object> stats() {
+        long n = attempts.get();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("attempts", n);
+        map.put("failures", failures.get());
+        map.put("retries", retries.get());
+        map.put("shortCircuited", shortCircuited.get());
+        map.put("circuit", breaker.state().name());
+        map.put("circuitOpened", breaker.timesOpened());
+        map.put("meanMs", n == 0 ? 0.0 : (double) totalMillis.get() / n);
+        map.put("p50Ms", percentile(0.50));
+        map.put("p95Ms", percentile(0.95));
+        map.put("p99Ms", percentile(0.99));
+        map.put("maxMs", maxMillis.get());
+        map.put("policy", Map.of(
+                "maxAttempts", policy.maxAttempts(),
+                "deadlineMs", policy.deadlineMillis(),
+                "retryPost", policy.retryPost()));
+        return map;
+    }
+
+    /**
+     * Upper bound of the histogram bucket holding the given quantile (the observed max for the overflow bucket).
+     */
+    private long percentile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            total += latencyBuckets.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < latencyBuckets.length(); i++) {
+            seen += latencyBuckets.get(i);
+            if (seen >= rank) {
+                return i < LATENCY_BOUNDS_MS.length ? LATENCY_BOUNDS_MS[i] : maxMillis.get();
+            }
+        }
+        return maxMillis.get();
+    }
+}
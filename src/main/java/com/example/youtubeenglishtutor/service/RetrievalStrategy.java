@@ -0,0 +1,10 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * How snippets are ranked: embeddings only, BM25 only, or a weighted fusion of both.
+ */
+public enum RetrievalStrategy {
+    VECTOR,
+    LEXICAL,
+    HYBRID
+}
@@ -0,0 +1,45 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * Portable fallback: four independent accumulators so the JIT can pipeline the multiply-adds.
+ */
+final class ScalarDotProductKernel implements DotProductKernel {
+
+    @Override
+    public void dotAll(float[][] queries, float[] matrix, int rows, int dimension, float[][] out) {
+        for (int row = 0; row < rows; row++) {
+            int offset = row * dimension;
+            for (int q = 0; q < queries.length; q++) {
+                out[q][row] = dot(queries[q], matrix, offset, dimension);
+            }
+        }
+    }
+
+    static float dot(float[] query, float[] matrix, int offset, int dimension) {
+        return dot(query, 0, matrix, offset, dimension);
+    }
+
+    static float dot(float[] a, int aOffset, float[] b, int bOffset, int dimension) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int upper = dimension & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+            s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
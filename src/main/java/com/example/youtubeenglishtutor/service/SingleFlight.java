@@ -0,0 +1,177 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses concurrent identical work across learners: the first caller for a key runs it, callers arriving while
+ * it is in flight wait for the same result (or exception) instead of repeating the upstream calls. Nothing is
+ * cached once the flight lands; that is left to the transcript file, question bank and embedding cache.
+ *
+ * <p>Keys are namespaced by stage ({@code "questions:..."}, {@code "chunks:..."}) and counted per stage.
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger log = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final boolean enabled;
+    private final Map<String, Flight<?, ?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> ledByStage = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> joinedByStage = new ConcurrentHashMap<>();
+
+    public SingleFlight(@Value("${app.single-flight.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public <V> V run(String key, Supplier<V> work) {
+        return run(key, p -> { }, emit -> work.get(), UnaryOperator.identity());
+    }
+
+    /**
+     * Runs {@code work} once per concurrent key. Progress it emits reaches every caller's {@code onProgress},
+     * with items emitted before a caller joined replayed to it first. Callers that joined an existing flight get
+     * the leader's result through {@code forFollower}, e.g. to copy entities they are about to attach and persist.
+     */
+    public <V, P> V run(String key, Consumer<P> onProgress, Function<Consumer<P>, V> work, UnaryOperator<V> forFollower) {
+        if (!enabled) {
+            return work.apply(onProgress);
+        }
+        Flight<V, P> mine = new Flight<>();
+        @SuppressWarnings("unchecked")
+        Flight<V, P> existing = (Flight<V, P>) inFlight.putIfAbsent(key, mine);
+        String stage = stage(key);
+        if (existing != null && existing.subscribe(onProgress)) {
+            counter(joinedByStage, stage).incrementAndGet();
+            log.info("Single-flight: joining in-flight {}", key);
+            return forFollower.apply(existing.await());
+        }
+        if (existing != null && !inFlight.replace(key, existing, mine)) {
+            // That flight landed between lookup and subscribe and is gone or replaced; start over.
+            return run(key, onProgress, work, forFollower);
+        }
+        counter(ledByStage, stage).incrementAndGet();
+        mine.subscribe(onProgress);
+        try {
+            V value = work.apply(mine::emit);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.fail(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public Stats stats() {
+        Map<String, Long> led = new LinkedHashMap<>();
+        Map<String, Long> joined = new LinkedHashMap<>();
+        ledByStage.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> led.put(e.getKey(), e.getValue().get()));
+        joinedByStage.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> joined.put(e.getKey(), e.getValue().get()));
+        return new Stats(enabled, inFlight.size(), led, joined);
+    }
+
+    private static String stage(String key) {
+        int colon = key.indexOf(':');
+        return colon > 0 ? key.substring(0, colon) : key;
+    }
+
+    private static AtomicLong counter(Map<String, AtomicLong> counters, String stage) {
+        return counters.computeIfAbsent(stage, s -> new AtomicLong());
+    }
+
+    public record Stats(boolean enabled, int inFlight, Map<String, Long> led, Map<String, Long> joined) {
+        public Map<String, Object> toMap() {
+            long leaders = led.values().stream().mapToLong(Long::longValue).sum();
+            long followers = joined.values().stream().mapToLong(Long::longValue).sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("enabled", enabled);
+            map.put("inFlight", inFlight);
+            map.put("led", led);
+            map.put("joined", joined);
+            map.put("coalescedRate", leaders + followers == 0 ? 0.0 : (double) followers / (double) (leaders + followers));
+            return map;
+        }
+    }
+
+    private static final class Flight<V, P> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final List<P> emitted = new ArrayList<>();
+        private final List<Consumer<P>> subscribers = new ArrayList<>();
+        private boolean done;
+
+        /**
+         * Replays what was emitted so far and registers for the rest; false once the flight has landed.
+         */
+        synchronized boolean subscribe(Consumer<P> subscriber) {
+            if (done) {
+                return false;
+            }
+            emitted.forEach(p -> deliver(subscriber, p));
+            subscribers.add(subscriber);
+            return true;
+        }
+
+        synchronized void emit(P progress) {
+            emitted.add(progress);
+            subscribers.forEach(s -> deliver(s, progress));
+        }
+
+        void complete(V value) {
+            synchronized (this) {
+                done = true;
+            }
+            result.complete(value);
+        }
+
+        void fail(Throwable e) {
+            synchronized (this) {
+                done = true;
+            }
+            result.completeExceptionally(e);
+        }
+
+        V await() {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for in-flight work", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (cause instanceof Error err) {
+                    throw err;
+                }
+                throw new CompletionException(cause);
+            }
+        }
+
+        private static <P> void deliver(Consumer<P> subscriber, P progress) {
+            try {
+                subscriber.accept(progress);
+            } catch (RuntimeException e) {
+                // One caller's progress listener must not break the shared work.
+                log.warn("Single-flight progress listener failed: {}", e.getMessage());
+            }
+        }
+    }
+}
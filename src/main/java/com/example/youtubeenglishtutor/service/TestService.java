@@ -6,16 +6,13 @@ import com.example.youtubeenglishtutor.entity.Test;
 import com.example.youtubeenglishtutor.entity.WrongQuestion;
 import com.example.youtubeenglishtutor.entity.CatalogVideo;
 import com.example.youtubeenglishtutor.entity.CatalogPreparation;
-import com.example.youtubeenglishtutor.entity.CatalogTranscriptChunk;
 import com.example.youtubeenglishtutor.entity.CatalogQuestionPack;
 import com.example.youtubeenglishtutor.service.ObservabilityService;
 import com.example.youtubeenglishtutor.service.CatalogPackService;
 import com.example.youtubeenglishtutor.repository.TestRepository;
-import com.example.youtubeenglishtutor.repository.TranscriptChunkRepository;
 import com.example.youtubeenglishtutor.repository.WrongQuestionRepository;
 import com.example.youtubeenglishtutor.repository.CatalogVideoRepository;
 import com.example.youtubeenglishtutor.repository.CatalogPreparationRepository;
-import com.example.youtubeenglishtutor.repository.CatalogTranscriptChunkRepository;
 import com.example.youtubeenglishtutor.repository.CatalogQuestionPackRepository;
 import com.example.youtubeenglishtutor.web.LearnerContext;
 import java.io.IOException;
@@ -31,11 +28,14 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,26 +51,23 @@ public class TestService {
     private final AiQuestionService aiQuestionService;
     private final TranscriptService transcriptService;
     private final RagService ragService;
-    private final TranscriptChunkRepository chunkRepository;
     private final CatalogVideoRepository catalogVideoRepository;
     private final CatalogPreparationRepository catalogPreparationRepository;
-    private final CatalogTranscriptChunkRepository catalogTranscriptChunkRepository;
+    private final CatalogPrewarmService catalogPrewarmService;
     private final CatalogQuestionPackRepository catalogQuestionPackRepository;
     private final CatalogPackService catalogPackService;
     private final VideoMetadataService videoMetadataService;
     private final ObservabilityService observabilityService;
     private final LearnerContext learnerContext;
+    private final GenerationCache generationCache;
+    private final QuestionBank questionBank;
+    private final SingleFlight singleFlight;
+    private final TransactionTemplate transactionTemplate;
     private final ConcurrentHashMap<String, Object> transcriptLocks = new ConcurrentHashMap<>();
 
     @Value("${app.download.default-path:downloads}")
     private String defaultDownloadPath;
 
-    @Value("${app.rag.chunk-size:500}")
-    private int chunkSize;
-
-    @Value("${app.rag.chunk-overlap:100}")
-    private int chunkOverlap;
-
     @Value("${app.video.max-seconds:1800}")
     private long maxVideoSeconds;
 
@@ -83,37 +80,64 @@ public class TestService {
             AiQuestionService aiQuestionService,
             TranscriptService transcriptService,
             RagService ragService,
-            TranscriptChunkRepository chunkRepository,
             CatalogVideoRepository catalogVideoRepository,
             CatalogPreparationRepository catalogPreparationRepository,
-            CatalogTranscriptChunkRepository catalogTranscriptChunkRepository,
+            CatalogPrewarmService catalogPrewarmService,
             CatalogQuestionPackRepository catalogQuestionPackRepository,
             CatalogPackService catalogPackService,
             VideoMetadataService videoMetadataService,
             ObservabilityService observabilityService,
-            LearnerContext learnerContext) {
+            LearnerContext learnerContext,
+            GenerationCache generationCache,
+            QuestionBank questionBank,
+            SingleFlight singleFlight,
+            PlatformTransactionManager transactionManager) {
         this.testRepository = testRepository;
         this.wrongQuestionRepository = wrongQuestionRepository;
         this.aiQuestionService = aiQuestionService;
         this.transcriptService = transcriptService;
         this.ragService = ragService;
-        this.chunkRepository = chunkRepository;
         this.catalogVideoRepository = catalogVideoRepository;
         this.catalogPreparationRepository = catalogPreparationRepository;
-        this.catalogTranscriptChunkRepository = catalogTranscriptChunkRepository;
+        this.catalogPrewarmService = catalogPrewarmService;
         this.catalogQuestionPackRepository = catalogQuestionPackRepository;
         this.catalogPackService = catalogPackService;
         this.videoMetadataService = videoMetadataService;
         this.observabilityService = observabilityService;
         this.learnerContext = learnerContext;
+        this.generationCache = generationCache;
+        this.questionBank = questionBank;
+        this.singleFlight = singleFlight;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Test createTest(String videoUrl, String downloadPath, boolean useDefaultPath) {
         return createTest(videoUrl, downloadPath, useDefaultPath, null);
     }
 
-    @Transactional
     public Test createTest(String videoUrl, String downloadPath, boolean useDefaultPath, Integer desiredSize) {
+        return createTest(videoUrl, downloadPath, useDefaultPath, desiredSize, q -> { });
+    }
+
+    public Test createTest(String videoUrl, String downloadPath, boolean useDefaultPath, Integer desiredSize, Consumer<Question> onQuestion) {
+        return createTest(videoUrl, downloadPath, useDefaultPath, desiredSize, false, onQuestion);
+    }
+
+    /**
+     * Creates a test, reporting each question to {@code onQuestion} as soon as it exists (all at once for a
+     * pre-generated pack or bank sample, one by one while a generation streams in). {@code freshQuestions}
+     * skips packs, the question bank and the generation cache and always calls the model.
+     *
+     * <p>The expensive shared stages (yt-dlp metadata and transcript, question generation, chunk embeddings) go
+     * through {@link SingleFlight}, so learners starting the same video, size and difficulty at once wait on one
+     * upstream run; only the Test row and its question copies are per learner. Fresh-question requests still share
+     * the transcript and embedding stages but always run their own generation.
+     *
+     * <p>Deliberately not transactional: learners waiting on a flight must not hold a pooled connection the leader
+     * needs for its own writes. Only the final insert of the learner's Test and chunks runs in a transaction.
+     */
+    public Test createTest(
+            String videoUrl, String downloadPath, boolean useDefaultPath, Integer desiredSize, boolean freshQuestions, Consumer<Question> onQuestion) {
         String learnerId = learnerContext.getCurrentLearnerId();
         String resolvedPath = resolveDownloadPath(downloadPath, useDefaultPath);
         log.info("Creating test for videoUrl={} using downloadPath={}", videoUrl, resolvedPath);
@@ -135,63 +159,64 @@ public class TestService {
             }
         }
 
+        String videoKey = resolveCacheKey(videoUrl);
         String transcript = (prewarm != null && Boolean.TRUE.equals(prewarm.getTranscriptReady()) && StringUtils.hasText(prewarm.getTranscript()))
                 ? prewarm.getTranscript()
-                : fetchOrReuseTranscript(videoUrl, resolvedPath);
+                : singleFlight.run("transcript:" + videoKey, () -> fetchOrReuseTranscript(videoUrl, resolvedPath));
         log.debug("Transcript ready ({} chars)", transcript != null ? transcript.length() : 0);
 
-        Test test = new Test();
-        test.setLearnerId(learnerId);
-        test.setVideoUrl(videoUrl);
-        test.setVideoTitle(videoTitle);
-        test.setTranscript(transcript);
-
         int targetSize = desiredSize != null && desiredSize > 0 ? desiredSize : 10;
-        List<Question> generatedQuestions = null;
-        if (catalogVideo != null) {
+        List<Question> questions = null;
+        if (catalogVideo != null && !freshQuestions) {
             Optional<CatalogQuestionPack> packOpt = catalogPackService.findNearestPack(catalogVideo, targetSize);
             if (packOpt.isPresent()) {
-                List<Question> packQuestions = catalogPackService.materialize(packOpt.get());
-                packQuestions.forEach(test::addQuestion);
-                test.setTotalQuestions(packQuestions.size());
-                test = testRepository.save(test);
-                log.info("Used pre-generated pack size={} (actual={}) for videoId={}", targetSize, packQuestions.size(), videoId);
+                questions = catalogPackService.materialize(packOpt.get());
+                questions.forEach(onQuestion);
+                ragService.embedQuestions(questions);
+                log.info("Used pre-generated pack size={} (actual={}) for videoId={}", targetSize, questions.size(), videoId);
             }
         }
-
-        if (test.getId() == null) {
-            generatedQuestions = aiQuestionService.generateQuestionsFromTranscript(transcript, DifficultyLevel.NORMAL, targetSize, false);
-            generatedQuestions.forEach(test::addQuestion);
-            test.setTotalQuestions(generatedQuestions.size());
-            test = testRepository.save(test);
-        }
-        final String videoIdFinal = videoId;
-        final Test savedTest = test;
-        if (prewarm != null && Boolean.TRUE.equals(prewarm.getEmbeddingsReady())) {
-            List<CatalogTranscriptChunk> catalogChunks = catalogTranscriptChunkRepository.findByCatalogVideo(catalogVideo);
-            if (!catalogChunks.isEmpty()) {
-                chunkRepository.deleteByTestId(test.getId());
-                List<com.example.youtubeenglishtutor.entity.TranscriptChunk> chunks = catalogChunks.stream().map(cc -> {
-                    com.example.youtubeenglishtutor.entity.TranscriptChunk c = new com.example.youtubeenglishtutor.entity.TranscriptChunk();
-                    c.setTest(savedTest);
-                    c.setContent(cc.getContent());
-                    c.setEmbedding(cc.getEmbedding());
-                    return c;
-                }).toList();
-                chunkRepository.saveAll(chunks);
-                log.info("Reused prewarmed embeddings for videoId={} chunks={}", videoIdFinal, catalogChunks.size());
+        if (questions == null) {
+            if (freshQuestions) {
+                // Each learner asking for fresh questions gets their own generation; sharing one would defeat it.
+                questions = generateQuestions(videoKey, transcript, DifficultyLevel.NORMAL, targetSize, false, true, onQuestion);
             } else {
-                ragService.saveChunks(test, transcript, chunkSize, chunkOverlap);
+                questions = singleFlight.run("questions:" + videoKey + ":" + targetSize + ":" + DifficultyLevel.NORMAL, onQuestion,
+                        emit -> generateQuestions(videoKey, transcript, DifficultyLevel.NORMAL, targetSize, false, false, emit),
+                        TestService::copyQuestions);
             }
-        } else {
-            ragService.saveChunks(test, transcript, chunkSize, chunkOverlap);
         }
 
-        return testRepository.save(test);
+        String chunkSetVersion = transcript != null && prewarm != null && transcript.equals(prewarm.getTranscript())
+                ? catalogPrewarmService.ensureChunkSetVersion(prewarm)
+                : null;
+        RagService.EmbeddedChunks chunks = chunkSetVersion == null ? ragService.embedChunks(transcript) : null;
+
+        Test test = new Test();
+        test.setLearnerId(learnerId);
+        test.setVideoUrl(videoUrl);
+        test.setVideoTitle(videoTitle);
+        test.setTranscript(transcript);
+        test.setDifficulty(DifficultyLevel.NORMAL.name());
+        questions.forEach(test::addQuestion);
+        test.setTotalQuestions(questions.size());
+        if (chunkSetVersion != null) {
+            // Point at the shared catalog chunk set instead of copying its rows per learner.
+            test.setCatalogVideoId(catalogVideo.getId());
+            test.setChunkSetVersion(chunkSetVersion);
+            log.info("Using shared prewarmed chunk set for videoId={} version={}", videoId, chunkSetVersion.substring(0, 12));
+        }
+        return transactionTemplate.execute(status -> {
+            Test saved = testRepository.save(test);
+            if (chunks != null) {
+                ragService.saveChunks(saved, chunks);
+            }
+            return saved;
+        });
     }
 
     private String resolveTitle(String videoUrl) {
-        String title = videoMetadataService.getTitle(videoUrl);
+        String title = singleFlight.run("title:" + resolveCacheKey(videoUrl), () -> videoMetadataService.getTitle(videoUrl));
         if (!StringUtils.hasText(title)) {
             return "YouTube Video";
         }
@@ -271,18 +296,96 @@ public class TestService {
             throw new IllegalStateException("Transcript missing; cannot regenerate. Please recreate the test.");
         }
 
+        int size = test.getQuestions().isEmpty() ? 10 : test.getQuestions().size();
+        DifficultyLevel target = difficulty != null ? difficulty : DifficultyLevel.NORMAL;
+        DifficultyLevel current = test.getDifficulty() != null ? DifficultyLevel.valueOf(test.getDifficulty()) : DifficultyLevel.NORMAL;
+        boolean sameDifficulty = current == target;
+        List<Question> regenerated = sameDifficulty ? null : findDifficultyPack(test, target, size);
+
         wrongQuestionRepository.deleteByTestId(testId);
         test.getWrongQuestions().clear();
         test.getQuestions().clear();
         test.setScore(null);
         test.setTotalQuestions(null);
 
-        List<Question> regenerated = aiQuestionService.generateQuestionsFromTranscript(test.getTranscript(), difficulty);
+        if (regenerated == null) {
+            // Regenerating at the same difficulty asks for new questions, so it goes to the model; a difficulty
+            // switch may reuse the bank or generation cache for that difficulty.
+            regenerated = generateQuestions(
+                    resolveCacheKey(test.getVideoUrl()), test.getTranscript(), target, size, false, sameDifficulty, q -> { });
+        }
+        test.setDifficulty(target.name());
         regenerated.forEach(test::addQuestion);
         test.setTotalQuestions(regenerated.size());
         return testRepository.save(test);
     }
 
+    /**
+     * For a catalog video, the pre-generated EASIER/HARDER pack nearest {@code size} that was built from this
+     * test's transcript, so switching difficulty needs no model call; null when there is none.
+     */
+    private List<Question> findDifficultyPack(Test test, DifficultyLevel difficulty, int size) {
+        if (difficulty == null || difficulty == DifficultyLevel.NORMAL) {
+            return null;
+        }
+        String videoId = com.example.youtubeenglishtutor.web.YoutubeUrlUtils.extractVideoId(test.getVideoUrl());
+        CatalogVideo catalogVideo = StringUtils.hasText(videoId) ? catalogVideoRepository.findFirstByVideoId(videoId).orElse(null) : null;
+        if (catalogVideo == null) {
+            return null;
+        }
+        String version = ContentHashes.sha256Hex(test.getTranscript());
+        return catalogPackService.findNearestPack(catalogVideo, size, difficulty)
+                .filter(pack -> pack.getTranscriptVersion() == null || pack.getTranscriptVersion().equals(version))
+                .map(pack -> {
+                    List<Question> questions = catalogPackService.materialize(pack);
+                    ragService.embedQuestions(questions);
+                    log.info("Regenerate swapped in {} pack size={} for videoId={}", difficulty, pack.getSize(), videoId);
+                    return questions;
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Samples the video's {@link QuestionBank} when it is large enough, then tries {@link GenerationCache}, and
+     * only then calls the model; {@code fresh} goes straight to the model. Generated questions are cached and
+     * banked. Questions come back embedded and unattached.
+     */
+    private List<Question> generateQuestions(
+            String videoKey, String transcript, DifficultyLevel difficulty, int count, boolean includeWriting,
+            boolean fresh, Consumer<Question> onQuestion) {
+        String model = aiQuestionService.modelName();
+        Optional<List<Question>> reused = fresh
+                ? Optional.empty()
+                : questionBank.sample(videoKey, transcript, difficulty, count, includeWriting)
+                        .or(() -> generationCache.lookup(transcript, model, difficulty, count, includeWriting));
+        if (reused.isPresent()) {
+            reused.get().forEach(onQuestion);
+            ragService.embedQuestions(reused.get());
+            return reused.get();
+        }
+        List<Question> questions = aiQuestionService.generateQuestionsFromTranscript(transcript, difficulty, count, includeWriting, onQuestion);
+        ragService.embedQuestions(questions);
+        generationCache.store(transcript, model, difficulty, count, includeWriting, questions);
+        questionBank.add(videoKey, transcript, difficulty, questions);
+        return questions;
+    }
+
+    /**
+     * Unattached copies for a learner who joined another learner's generation, whose questions that learner's
+     * test is about to own.
+     */
+    private static List<Question> copyQuestions(List<Question> questions) {
+        return questions.stream().map(q -> {
+            Question copy = new Question();
+            copy.setType(q.getType());
+            copy.setText(q.getText());
+            copy.setOptions(q.getOptions());
+            copy.setCorrectAnswer(q.getCorrectAnswer());
+            copy.setQueryEmbedding(q.getQueryEmbedding());
+            return copy;
+        }).toList();
+    }
+
     private boolean evaluateAnswer(Question question, List<String> submittedAnswers) {
         List<String> correctAnswers = question.getCorrectAnswerList().stream()
                 .map(answer -> answer.toLowerCase().trim())
@@ -327,7 +430,7 @@ public class TestService {
             log.info("Video length enforcement disabled; skipping duration check for {}", videoUrl);
             return;
         }
-        long duration = videoMetadataService.getDurationSeconds(videoUrl);
+        long duration = singleFlight.run("duration:" + resolveCacheKey(videoUrl), () -> videoMetadataService.getDurationSeconds(videoUrl));
         if (duration <= 0) {
             throw new IllegalArgumentException("Unable to determine video length. Ensure yt-dlp is available and use videos up to " + (maxVideoSeconds / 60) + " minutes. Check that yt-dlp is on PATH and returns --get-duration output without errors.");
         }
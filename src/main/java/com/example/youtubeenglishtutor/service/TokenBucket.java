@@ -0,0 +1,45 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * Token bucket holding up to {@code capacity} permits, refilled continuously at {@code capacity} per minute.
+ * {@link #reserve} always succeeds and returns how long the caller must wait, letting the balance go negative
+ * so concurrent callers queue fairly instead of spinning.
+ */
+final class TokenBucket {
+
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+
+    private final long capacity;
+    private double available;
+    private long lastRefillMillis;
+
+    TokenBucket(long capacityPerMinute, long nowMillis) {
+        this.capacity = Math.max(1, capacityPerMinute);
+        this.available = this.capacity;
+        this.lastRefillMillis = nowMillis;
+    }
+
+    /**
+     * Takes {@code permits} (capped at the capacity, so one oversized request cannot block forever) and returns the
+     * milliseconds until they are actually available; 0 means go now.
+     */
+    synchronized long reserve(long permits, long nowMillis) {
+        refill(nowMillis);
+        available -= Math.min(Math.max(0, permits), capacity);
+        if (available >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-available * MILLIS_PER_MINUTE / capacity);
+    }
+
+    synchronized double available(long nowMillis) {
+        refill(nowMillis);
+        return available;
+    }
+
+    private void refill(long nowMillis) {
+        long elapsed = Math.max(0, nowMillis - lastRefillMillis);
+        available = Math.min(capacity, available + elapsed * capacity / MILLIS_PER_MINUTE);
+        lastRefillMillis = nowMillis;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.youtubeenglishtutor.service;
+
+/**
+ * Keeps the {@code k} highest-scoring rows seen so far in a fixed-size binary min-heap over primitive arrays.
+ * Offering n candidates costs O(n log k) with no per-candidate allocation. Ties prefer the lower row index.
+ */
+final class TopKSelector {
+
+    private final int[] rows;
+    private final float[] scores;
+    private int size;
+
+    TopKSelector(int k) {
+        int capacity = Math.max(1, k);
+        this.rows = new int[capacity];
+        this.scores = new float[capacity];
+    }
+
+    /**
+     * Selects the top {@code k} rows of {@code rowScores}, best first.
+     */
+    static int[] select(float[] rowScores, int k) {
+        TopKSelector selector = new TopKSelector(Math.min(k, rowScores.length));
+        for (int row = 0; row < rowScores.length; row++) {
+            selector.offer(row, rowScores[row]);
+        }
+        return selector.rowsDescending();
+    }
+
+    void offer(int row, float score) {
+        if (size < rows.length) {
+            rows[size] = row;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (worse(rows[0], scores[0], row, score)) {
+            rows[0] = row;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drains a copy of the heap into best-first order; the selector itself is left untouched.
+     */
+    int[] rowsDescending() {
+        int[] heapRows = rows.clone();
+        float[] heapScores = scores.clone();
+        int[] out = new int[size];
+        for (int n = size; n > 0; n--) {
+            out[n - 1] = heapRows[0];
+            heapRows[0] = heapRows[n - 1];
+            heapScores[0] = heapScores[n - 1];
+            siftDown(heapRows, heapScores, 0, n - 1);
+        }
+        return out;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(rows[i], scores[i], rows[parent], scores[parent])) {
+                return;
+            }
+            swap(rows, scores, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        siftDown(rows, scores, i, size);
+    }
+
+    private static void siftDown(int[] rows, float[] scores, int i, int n) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) {
+                return;
+            }
+            int right = left + 1;
+            int smallest = right < n && worse(rows[right], scores[right], rows[left], scores[left]) ? right : left;
+            if (!worse(rows[smallest], scores[smallest], rows[i], scores[i])) {
+                return;
+            }
+            swap(rows, scores, i, smallest);
+            i = smallest;
+        }
+    }
+
+    /** True when (rowA, scoreA) ranks below (rowB, scoreB). */
+    private static boolean worse(int rowA, float scoreA, int rowB, float scoreB) {
+        return scoreA < scoreB || (scoreA == scoreB && rowA > rowB);
+    }
+
+    private static void swap(int[] rows, float[] scores, int i, int j) {
+        int r = rows[i];
+        rows[i] = rows[j];
+        rows[j] = r;
+        float s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+    }
+}
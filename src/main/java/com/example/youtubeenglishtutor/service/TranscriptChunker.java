@@ -0,0 +1,182 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Splits a transcript into overlapping windows for retrieval. One scan over the raw text collapses whitespace
+ * and records word boundaries; windows are then packed from whole words, preferring to end on a sentence.
+ * Each chunk carries its {@code [start, end)} offsets into the raw transcript, so the same transcript always
+ * yields the same chunk set on every ingestion path.
+ */
+@Component
+public class TranscriptChunker {
+
+    /**
+     * One window: whitespace-collapsed text plus its span in the original transcript.
+     */
+    public record Chunk(int start, int end, String text) {
+    }
+
+    private final int size;
+    private final int overlap;
+
+    public TranscriptChunker(
+            @Value("${app.rag.chunk-size:500}") int size,
+            @Value("${app.rag.chunk-overlap:100}") int overlap) {
+        this.size = Math.max(1, size);
+        this.overlap = Math.max(0, Math.min(overlap, this.size - 1));
+    }
+
+    public List<Chunk> chunk(String transcript) {
+        return chunk(transcript, size, overlap);
+    }
+
+    /**
+     * Windows of at most {@code size} collapsed characters; each window starts with the whole words that fit in
+     * the last {@code overlap} characters of the previous one. A window ends at the last sentence end that keeps it at
+     * least half full, otherwise at the last word that fits. Words longer than {@code size} are split.
+     */
+    static List<Chunk> chunk(String transcript, int size, int overlap) {
+        if (!StringUtils.hasText(transcript)) {
+            return List.of();
+        }
+        Words words = Words.scan(transcript, size);
+        List<Chunk> chunks = new ArrayList<>();
+        int first = 0;
+        while (first < words.count) {
+            int windowStart = words.startN[first];
+            int last = first;
+            while (last + 1 < words.count && words.endN[last + 1] - windowStart <= size) {
+                last++;
+            }
+            if (last + 1 < words.count) {
+                for (int w = last; w > first; w--) {
+                    if (words.sentenceEnd[w] && words.endN[w] - windowStart >= size / 2) {
+                        last = w;
+                        break;
+                    }
+                }
+            }
+            chunks.add(new Chunk(words.startR[first], words.endR[last], words.text.substring(windowStart, words.endN[last])));
+            if (last + 1 >= words.count) {
+                break;
+            }
+            int next = last + 1;
+            int overlapFrom = words.endN[last] - overlap;
+            while (next - 1 > first && words.startN[next - 1] >= overlapFrom) {
+                next--;
+            }
+            first = next;
+        }
+        return chunks;
+    }
+
+    /**
+     * Collapsed text of {@code raw[start, end)}, stopping once it exceeds {@code limit} characters. Applied to a
+     * chunk's offsets this reproduces {@link Chunk#text()}.
+     */
+    static String collapse(String raw, int start, int end, int limit) {
+        StringBuilder sb = new StringBuilder(Math.min(end - start, limit + 1));
+        boolean pendingSpace = false;
+        for (int i = start; i < end && sb.length() <= limit; i++) {
+            char c = raw.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Word boundaries in both collapsed ({@code N}) and raw ({@code R}) coordinates.
+     */
+    private static final class Words {
+        final StringBuilder text;
+        int count;
+        int[] startN = new int[64];
+        int[] endN = new int[64];
+        int[] startR = new int[64];
+        int[] endR = new int[64];
+        boolean[] sentenceEnd = new boolean[64];
+
+        private Words(int capacity) {
+            this.text = new StringBuilder(capacity);
+        }
+
+        static Words scan(String raw, int maxWordLength) {
+            Words words = new Words(raw.length());
+            boolean inWord = false;
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    if (inWord) {
+                        words.close(i);
+                        inWord = false;
+                    }
+                    continue;
+                }
+                if (inWord && words.text.length() - words.startN[words.count] >= maxWordLength) {
+                    words.close(i);
+                    inWord = false;
+                }
+                if (!inWord) {
+                    words.open(i);
+                    inWord = true;
+                }
+                words.text.append(c);
+            }
+            if (inWord) {
+                words.close(raw.length());
+            }
+            return words;
+        }
+
+        private void open(int rawOffset) {
+            if (count == startN.length) {
+                int grown = count * 2;
+                startN = Arrays.copyOf(startN, grown);
+                endN = Arrays.copyOf(endN, grown);
+                startR = Arrays.copyOf(startR, grown);
+                endR = Arrays.copyOf(endR, grown);
+                sentenceEnd = Arrays.copyOf(sentenceEnd, grown);
+            }
+            // A split long word continues without a space; everything else gets one separator.
+            if (count > 0 && endR[count - 1] != rawOffset) {
+                text.append(' ');
+            }
+            startN[count] = text.length();
+            startR[count] = rawOffset;
+        }
+
+        private void close(int rawOffset) {
+            endN[count] = text.length();
+            endR[count] = rawOffset;
+            sentenceEnd[count] = endsSentence(text, startN[count], endN[count]);
+            count++;
+        }
+
+        private static boolean endsSentence(CharSequence text, int start, int end) {
+            for (int i = end - 1; i >= start; i--) {
+                char c = text.charAt(i);
+                if (c == '.' || c == '!' || c == '?' || c == '…') {
+                    return true;
+                }
+                if (c != '"' && c != '\'' && c != ')' && c != ']' && c != '”' && c != '’') {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
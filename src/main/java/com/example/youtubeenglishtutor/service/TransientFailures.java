@@ -0,0 +1,47 @@
+package com.example.youtubeenglishtutor.service;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Classifies failures anywhere in a cause chain: rate limiting (429), server errors (5xx) and I/O failures are
+ * worth retrying; everything else (bad request, auth, parse errors) is not.
+ */
+final class TransientFailures {
+
+    private TransientFailures() {
+    }
+
+    static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpStatusCodeException http) {
+                HttpStatusCode status = http.getStatusCode();
+                return status.value() == 429 || status.is5xxServerError();
+            }
+            if (t instanceof ResourceAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The server's Retry-After (seconds form) in milliseconds, or -1 when absent.
+     */
+    static long retryAfterMillis(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpStatusCodeException http && http.getResponseHeaders() != null) {
+                String value = http.getResponseHeaders().getFirst("Retry-After");
+                if (value != null) {
+                    try {
+                        return Math.max(0, (long) (Double.parseDouble(value.trim()) * 1000));
+                    } catch (NumberFormatException ignored) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+}
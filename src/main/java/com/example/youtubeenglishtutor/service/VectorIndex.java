@@ -0,0 +1,227 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable in-memory snapshot of one chunk set: vectors packed row-major into a single {@code float[]} (or,
+ * when quantized, a {@code byte[]} of int8 codes with one scale per row), chunk ids, chunk text as
+ * {@code [start, end)} spans of one shared string (usually the transcript itself, whitespace collapsed on
+ * read), and a BM25 index over the same rows for lexical retrieval.
+ */
+public final class VectorIndex {
+
+    private final int dimension;
+    private final float[] vectors;
+    private final byte[] codes;
+    private final float[] scales;
+    private final long[] chunkIds;
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+    private final Bm25Index lexical;
+
+    private VectorIndex(int dimension, float[] vectors, byte[] codes, float[] scales, long[] chunkIds, String text,
+                        int[] starts, int[] ends, Bm25Index lexical) {
+        this.dimension = dimension;
+        this.vectors = vectors;
+        this.codes = codes;
+        this.scales = scales;
+        this.chunkIds = chunkIds;
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.lexical = lexical;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return chunkIds.length;
+    }
+
+    public boolean isEmpty() {
+        return chunkIds.length == 0;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public boolean isQuantized() {
+        return codes != null;
+    }
+
+    /**
+     * Row-major float matrix; row {@code i} starts at {@code i * dimension()}. Null for a quantized index.
+     * Callers must not modify it.
+     */
+    public float[] vectors() {
+        return vectors;
+    }
+
+    /**
+     * Fills {@code out[q][row]} with the dot product of each query and each row: exact for a float index,
+     * approximate (int8 codes times row scale) for a quantized one.
+     */
+    public void scoreAll(float[][] queries, DotProductKernel kernel, float[][] out) {
+        if (codes != null) {
+            Int8Quantizer.dotAll(queries, codes, scales, size(), dimension, out);
+        } else {
+            kernel.dotAll(queries, vectors, size(), dimension, out);
+        }
+    }
+
+    /**
+     * Cosine similarity between two rows of this index.
+     */
+    public float rowSimilarity(int a, int b) {
+        if (codes != null) {
+            return Int8Quantizer.codeDot(codes, a * dimension, b * dimension, dimension) * scales[a] * scales[b];
+        }
+        return ScalarDotProductKernel.dot(vectors, a * dimension, vectors, b * dimension, dimension);
+    }
+
+    public long chunkId(int row) {
+        return chunkIds[row];
+    }
+
+    public String content(int row) {
+        return content(row, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Chunk text, cut off once it is longer than {@code limit} characters.
+     */
+    public String content(int row, int limit) {
+        return TranscriptChunker.collapse(text, starts[row], ends[row], limit);
+    }
+
+    public Bm25Index lexical() {
+        return lexical;
+    }
+
+    public long memoryBytes() {
+        return 64L
+                + lexical.memoryBytes()
+                + (vectors != null ? (long) vectors.length * Float.BYTES : 0L)
+                + (codes != null ? codes.length + (long) scales.length * Float.BYTES : 0L)
+                + (long) chunkIds.length * Long.BYTES
+                + 2L * starts.length * Integer.BYTES
+                + (long) text.length() * Character.BYTES;
+    }
+
+    public static final class Builder {
+
+        private final List<float[]> rows = new ArrayList<>();
+        private final List<Long> ids = new ArrayList<>();
+        private final StringBuilder ownText = new StringBuilder();
+        private final List<int[]> spans = new ArrayList<>();
+        private final List<Boolean> inSource = new ArrayList<>();
+        private String source;
+        private int dimension = -1;
+        private boolean quantized;
+
+        private Builder() {
+        }
+
+        /**
+         * Text that {@link #addSpan} offsets refer to, normally the transcript the chunks were cut from.
+         */
+        public Builder source(String source) {
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * Stores int8 codes instead of float32 vectors (about 4x less heap, approximate scores).
+         */
+        public Builder quantized(boolean quantized) {
+            this.quantized = quantized;
+            return this;
+        }
+
+        /**
+         * Adds a chunk whose text is stored inline (legacy rows).
+         */
+        public Builder add(Long chunkId, String content, float[] vector) {
+            if (!addVector(chunkId, vector)) {
+                return this;
+            }
+            int start = ownText.length();
+            ownText.append(content != null ? content : "");
+            spans.add(new int[] {start, ownText.length()});
+            inSource.add(false);
+            return this;
+        }
+
+        /**
+         * Adds a chunk whose text is {@code source[start, end)}.
+         */
+        public Builder addSpan(Long chunkId, int start, int end, float[] vector) {
+            if (source == null || start < 0 || end > source.length() || start > end) {
+                throw new IllegalArgumentException("Chunk span [" + start + ", " + end + ") outside source text");
+            }
+            if (addVector(chunkId, vector)) {
+                spans.add(new int[] {start, end});
+                inSource.add(true);
+            }
+            return this;
+        }
+
+        /**
+         * L2-normalizes the vector in place (a no-op for vectors normalized at ingest). Chunks whose vector is
+         * empty or whose dimension differs from the first one are skipped.
+         */
+        private boolean addVector(Long chunkId, float[] vector) {
+            if (vector == null || vector.length == 0) {
+                return false;
+            }
+            if (dimension < 0) {
+                dimension = vector.length;
+            } else if (vector.length != dimension) {
+                return false;
+            }
+            rows.add(VectorMath.normalize(vector));
+            ids.add(chunkId != null ? chunkId : -1L);
+            return true;
+        }
+
+        public VectorIndex build() {
+            int dim = Math.max(0, dimension);
+            float[] matrix = null;
+            byte[] codes = null;
+            float[] scales = null;
+            if (quantized) {
+                codes = new byte[rows.size() * dim];
+                scales = new float[rows.size()];
+                for (int i = 0; i < rows.size(); i++) {
+                    scales[i] = Int8Quantizer.quantize(rows.get(i), codes, i * dim);
+                }
+            } else {
+                matrix = new float[rows.size() * dim];
+                for (int i = 0; i < rows.size(); i++) {
+                    System.arraycopy(rows.get(i), 0, matrix, i * dim, dim);
+                }
+            }
+            long[] chunkIds = ids.stream().mapToLong(Long::longValue).toArray();
+            // Span rows point into the source; inline rows into ownText. Mixed sets get one combined string.
+            boolean anyInline = inSource.contains(false);
+            boolean anySpan = inSource.contains(true);
+            String text = anySpan && !anyInline ? source : anyInline && anySpan ? ownText + source : ownText.toString();
+            int shift = anyInline && anySpan ? ownText.length() : 0;
+            int[] starts = new int[spans.size()];
+            int[] ends = new int[spans.size()];
+            List<String> documents = new ArrayList<>(spans.size());
+            for (int i = 0; i < spans.size(); i++) {
+                int offset = inSource.get(i) ? shift : 0;
+                starts[i] = spans.get(i)[0] + offset;
+                ends[i] = spans.get(i)[1] + offset;
+                documents.add(TranscriptChunker.collapse(text, starts[i], ends[i], Integer.MAX_VALUE - 1));
+            }
+            return new VectorIndex(dim, matrix, codes, scales, chunkIds, text, starts, ends, Bm25Index.build(documents));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * LRU cache of {@link VectorIndex} snapshots, bounded by approximate heap bytes and entry count.
+ * Indexes are built lazily on first access and dropped explicitly when their chunk set is rewritten.
+ */
+@Component
+public class VectorIndexCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorIndexCache.class);
+
+    public record Stats(
+            long hits,
+            long misses,
+            long evictions,
+            int entries,
+            long memoryBytes,
+            long maxBytes
+    ) {
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("hits", hits);
+            map.put("misses", misses);
+            map.put("evictions", evictions);
+            map.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (double) (hits + misses));
+            map.put("entries", entries);
+            map.put("memoryBytes", memoryBytes);
+            map.put("maxBytes", maxBytes);
+            return map;
+        }
+    }
+
+    private final LinkedHashMap<String, VectorIndex> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxBytes;
+    private final int maxEntries;
+    private long memoryBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public VectorIndexCache(
+            @Value("${app.rag.index-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${app.rag.index-cache.max-entries:500}") int maxEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached index for {@code key}, building it with {@code loader} on a miss. The loader runs
+     * outside the cache lock, so concurrent misses for the same key may both build; the last one wins.
+     * A build that overlaps an {@link #invalidate} is returned to its caller but not cached.
+     */
+    public VectorIndex getOrBuild(String key, Supplier<VectorIndex> loader) {
+        long generation;
+        synchronized (this) {
+            VectorIndex cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            generation = invalidations;
+        }
+        VectorIndex built = loader.get();
+        put(key, built, generation);
+        return built;
+    }
+
+    public synchronized void invalidate(String key) {
+        invalidations++;
+        VectorIndex removed = entries.remove(key);
+        if (removed != null) {
+            memoryBytes -= removed.memoryBytes();
+        }
+    }
+
+    public synchronized void clear() {
+        invalidations++;
+        entries.clear();
+        memoryBytes = 0;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), memoryBytes, maxBytes);
+    }
+
+    private synchronized void put(String key, VectorIndex index, long generation) {
+        if (generation != invalidations) {
+            return;
+        }
+        if (index.memoryBytes() > maxBytes) {
+            log.debug("Vector index {} ({} bytes) exceeds cache budget; not caching", key, index.memoryBytes());
+            return;
+        }
+        VectorIndex previous = entries.put(key, index);
+        if (previous != null) {
+            memoryBytes -= previous.memoryBytes();
+        }
+        memoryBytes += index.memoryBytes();
+        Iterator<Map.Entry<String, VectorIndex>> it = entries.entrySet().iterator();
+        while ((memoryBytes > maxBytes || entries.size() > maxEntries) && it.hasNext()) {
+            Map.Entry<String, VectorIndex> eldest = it.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            memoryBytes -= eldest.getValue().memoryBytes();
+            it.remove();
+            evictions++;
+        }
+    }
+}
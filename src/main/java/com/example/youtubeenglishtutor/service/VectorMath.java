@@ -0,0 +1,35 @@
+package com.example.youtubeenglishtutor.service;
+
+import java.util.List;
+
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * L2-normalizes in place and returns the same array; zero vectors are left untouched.
+     */
+    public static float[] normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += (double) v * v;
+        }
+        if (sum == 0 || Math.abs(sum - 1.0) < 1e-6) {
+            return vector;
+        }
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inv;
+        }
+        return vector;
+    }
+
+    public static float[] normalized(List<Double> vector) {
+        float[] values = new float[vector.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = vector.get(i).floatValue();
+        }
+        return normalize(values);
+    }
+}
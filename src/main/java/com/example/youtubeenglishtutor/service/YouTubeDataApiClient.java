@@ -24,8 +24,11 @@ public class YouTubeDataApiClient {
     @Value("${app.youtube.api-key:}")
     private String apiKey;
 
-    public YouTubeDataApiClient(RestTemplateBuilder builder) {
-        this.restTemplate = builder.build();
+    public YouTubeDataApiClient(RestTemplateBuilder builder, OutboundHttpClients outboundHttpClients) {
+        this.restTemplate = builder
+                .requestFactory(() -> outboundHttpClients.requestFactory(OutboundHttpClients.YOUTUBE))
+                .additionalInterceptors(outboundHttpClients.interceptor(OutboundHttpClients.YOUTUBE))
+                .build();
     }
 
     public boolean isConfigured() {
@@ -0,0 +1,30 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class Bm25IndexTest {
+
+    @Test
+    void ranksRowsContainingRareQueryTermsFirst() {
+        Bm25Index index = Bm25Index.build(List.of(
+                "the weather is nice today and the sun is out",
+                "we talked about the quarterly budget meeting",
+                "the the the the the"));
+
+        float[] scores = index.score("What did they say about the budget?");
+
+        assertTrue(scores[1] > scores[0]);
+        assertTrue(scores[1] > scores[2]);
+        assertEquals(0f, index.score("photosynthesis")[0]);
+    }
+
+    @Test
+    void tokenizesCaseInsensitivelyAndKeepsContractionsTogether() {
+        assertEquals(List.of("dont", "stop", "2024"), Bm25Index.tokenize("Don't STOP, 2024!"));
+        assertEquals(List.of(), Bm25Index.tokenize("  ... "));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.example.youtubeenglishtutor.entity.CatalogPreparation;
+import com.example.youtubeenglishtutor.entity.CatalogQuestionPack;
+import com.example.youtubeenglishtutor.entity.CatalogVideo;
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import com.example.youtubeenglishtutor.repository.CatalogQuestionPackRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class CatalogPackServiceTest {
+
+    @Test
+    void subsetKeepsWritingAndBalancesTypesInOriginalOrder() {
+        List<Question> full = List.of(
+                q(QuestionType.SINGLE_CHOICE, "s1"),
+                q(QuestionType.SINGLE_CHOICE, "s2"),
+                q(QuestionType.SINGLE_CHOICE, "s3"),
+                q(QuestionType.TRUE_FALSE, "t1"),
+                q(QuestionType.SINGLE_CHOICE, "s4"),
+                q(QuestionType.FILL_IN_BLANK, "f1"),
+                q(QuestionType.TRUE_FALSE, "t2"),
+                q(QuestionType.WRITING, "w1"));
+
+        List<Question> five = CatalogPackService.subset(full, 5);
+
+        assertEquals(List.of("s1", "s2", "t1", "f1", "w1"), five.stream().map(Question::getText).toList());
+    }
+
+    @Test
+    void subsetReturnsEverythingWhenSmallEnough() {
+        List<Question> full = List.of(q(QuestionType.SINGLE_CHOICE, "s1"), q(QuestionType.WRITING, "w1"));
+        assertSame(full, CatalogPackService.subset(full, 5));
+    }
+
+    @Test
+    void recentlyFailedPacksBackOffAndOlderFailuresAreRetries() {
+        Map<Integer, CatalogQuestionPack> packs = new HashMap<>();
+        CatalogPackService service = new CatalogPackService(fakeRepository(packs), null, null, new ObjectMapper(), null, 72);
+        CatalogVideo video = new CatalogVideo();
+        CatalogPreparation prep = new CatalogPreparation();
+        prep.setTranscript("Bees dance to tell the hive where the flowers are.");
+        List<Integer> sizes = List.of(5, 10);
+
+        assertEquals(CatalogPackService.PackState.STALE, service.packState(video, prep, sizes, DifficultyLevel.NORMAL));
+
+        packs.put(10, failedPack(LocalDateTime.now().minusHours(2)));
+        assertEquals(CatalogPackService.PackState.BACKING_OFF, service.packState(video, prep, sizes, DifficultyLevel.NORMAL));
+
+        packs.put(10, failedPack(LocalDateTime.now().minusHours(100)));
+        assertEquals(CatalogPackService.PackState.RETRY, service.packState(video, prep, sizes, DifficultyLevel.NORMAL));
+    }
+
+    private static CatalogQuestionPack failedPack(LocalDateTime failedAt) {
+        CatalogQuestionPack pack = new CatalogQuestionPack();
+        pack.setLastError("Unparseable model output");
+        pack.setFailedAt(failedAt);
+        return pack;
+    }
+
+    private static CatalogQuestionPackRepository fakeRepository(Map<Integer, CatalogQuestionPack> bySize) {
+        return (CatalogQuestionPackRepository) Proxy.newProxyInstance(CatalogQuestionPackRepository.class.getClassLoader(),
+                new Class<?>[] {CatalogQuestionPackRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findFirstByCatalogVideoAndSizeAndDifficulty" -> Optional.ofNullable(bySize.get((Integer) args[1]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "FakeCatalogQuestionPackRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Question q(QuestionType type, String text) {
+        Question question = new Question();
+        question.setType(type);
+        question.setText(text);
+        return question;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.youtubeenglishtutor.entity.CatalogPreparation;
+import com.example.youtubeenglishtutor.entity.CatalogTranscriptChunk;
+import com.example.youtubeenglishtutor.entity.CatalogVideo;
+import com.example.youtubeenglishtutor.repository.CatalogPreparationRepository;
+import com.example.youtubeenglishtutor.repository.CatalogTranscriptChunkRepository;
+import com.example.youtubeenglishtutor.repository.TestRepository;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class CatalogPrewarmServiceTest {
+
+    private static final String TRANSCRIPT = "Welcome back to the channel. Today we look at how bees communicate "
+            + "through dances, why the waggle dance matters, and what researchers learned by filming hives.";
+
+    private final CatalogVideo video = new CatalogVideo();
+    private final CatalogPreparation prep = new CatalogPreparation();
+    private final List<CatalogTranscriptChunk> chunks = new ArrayList<>();
+    private String transcript = TRANSCRIPT;
+
+    CatalogPrewarmServiceTest() {
+        video.setVideoId("bees123");
+        video.setVideoUrl("https://www.youtube.com/watch?v=bees123");
+        prep.setCatalogVideo(video);
+    }
+
+    @Test
+    void switchingProviderReEmbedsTheChunkSet() {
+        service(new FixedEmbeddingService("text-embedding-3-small", 16)).prewarm(video);
+        int chunkCount = chunks.size();
+        assertTrue(chunkCount > 0);
+        assertEquals("text-embedding-3-small", EmbeddingCodec.model(chunks.get(0).getEmbeddingVector()));
+
+        LocalEmbeddingService local = new LocalEmbeddingService(64, 3, 5);
+        service(local).prewarm(video);
+
+        assertEquals(chunkCount, chunks.size());
+        for (CatalogTranscriptChunk chunk : chunks) {
+            assertEquals(local.modelName(), EmbeddingCodec.model(chunk.getEmbeddingVector()));
+            assertEquals(64, EmbeddingCodec.dimension(chunk.getEmbeddingVector()));
+        }
+        assertTrue(prep.getEmbeddingsReady());
+    }
+
+    @Test
+    void chunkSetFromAnotherModelIsNotSharedAndIsQueuedForPrewarm() {
+        service(new FixedEmbeddingService("text-embedding-3-small", 16)).prewarm(video);
+        assertNotNull(service(new FixedEmbeddingService("text-embedding-3-small", 16)).ensureChunkSetVersion(prep));
+
+        String version = service(new LocalEmbeddingService(64, 3, 5)).ensureChunkSetVersion(prep);
+
+        assertNull(version);
+        assertFalse(prep.getEmbeddingsReady());
+    }
+
+    @Test
+    void replacedChunkSetIsKeptDuringTheGracePeriod() {
+        EmbeddingService embeddings = new FixedEmbeddingService("text-embedding-3-small", 16);
+        service(embeddings).prewarm(video);
+        String oldVersion = prep.getTranscriptVersion();
+
+        transcript = TRANSCRIPT + " Thanks for watching.";
+        service(embeddings).prewarm(video);
+
+        assertFalse(matching(oldVersion).isEmpty());
+        assertFalse(matching(prep.getTranscriptVersion()).isEmpty());
+    }
+
+    @Test
+    void replacedChunkSetIsRemovedOnceTheGracePeriodHasPassed() {
+        EmbeddingService embeddings = new FixedEmbeddingService("text-embedding-3-small", 16);
+        service(embeddings).prewarm(video);
+        String oldVersion = prep.getTranscriptVersion();
+
+        transcript = TRANSCRIPT + " Thanks for watching.";
+        service(embeddings).prewarm(video);
+        prep.setVersionChangedAt(LocalDateTime.now().minusHours(25));
+        service(embeddings).prewarm(video);
+
+        assertTrue(matching(oldVersion).isEmpty());
+        assertFalse(matching(prep.getTranscriptVersion()).isEmpty());
+    }
+
+    private CatalogPrewarmService service(EmbeddingService embeddingService) {
+        CatalogPreparationRepository preparations = fake(CatalogPreparationRepository.class, Map.of(
+                "findByCatalogVideo", args -> Optional.of(prep),
+                "save", args -> args[0]));
+        CatalogTranscriptChunkRepository chunkRepository = fake(CatalogTranscriptChunkRepository.class, Map.of(
+                "countByCatalogVideoAndTranscriptVersion", args -> (long) matching(args[1]).size(),
+                "findFirstByCatalogVideoAndTranscriptVersion", args -> matching(args[1]).stream().findFirst(),
+                "saveAll", args -> {
+                    ((Iterable<?>) args[0]).forEach(c -> chunks.add((CatalogTranscriptChunk) c));
+                    return args[0];
+                },
+                "deleteByCatalogVideoAndTranscriptVersion", args -> {
+                    chunks.removeIf(c -> Objects.equals(c.getTranscriptVersion(), args[1]));
+                    return null;
+                },
+                "deleteByCatalogVideoAndTranscriptVersionIsNull", args -> null,
+                "findVersions", args -> chunks.stream().map(CatalogTranscriptChunk::getTranscriptVersion).distinct().toList()));
+        TestRepository tests = fake(TestRepository.class, Map.of(
+                "existsByCatalogVideoIdAndChunkSetVersion", args -> false));
+        TranscriptService transcripts = url -> transcript;
+        return new CatalogPrewarmService(null, preparations, chunkRepository, transcripts, embeddingService, tests,
+                new TranscriptChunker(60, 10), new VectorIndexCache(1 << 20, 10), 24);
+    }
+
+    private List<CatalogTranscriptChunk> matching(Object version) {
+        return chunks.stream().filter(c -> Objects.equals(c.getTranscriptVersion(), version)).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "Fake" + type.getSimpleName();
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+    private record FixedEmbeddingService(String modelName, int dimension) implements EmbeddingService {
+        @Override
+        public List<Double> embed(String text) {
+            return Collections.nCopies(dimension, 1.0 / Math.sqrt(dimension));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresOnly() {
+        CircuitBreaker breaker = new CircuitBreaker(3, 1000);
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        breaker.onSuccess();
+        breaker.onFailure(0);
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.onFailure(0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(999));
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbeAndClosesOnSuccess() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000);
+        breaker.onFailure(0);
+        assertTrue(breaker.tryAcquire(1000));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(1001));
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire(1002));
+        assertTrue(breaker.tryAcquire(1002));
+    }
+
+    @Test
+    void failedProbeReopensForAnotherWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(5, 1000);
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure(0);
+        }
+        assertTrue(breaker.tryAcquire(1500));
+        breaker.onFailure(1500);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire(2000));
+        assertTrue(breaker.tryAcquire(2500));
+        assertEquals(2, breaker.timesOpened());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DotProductKernelsTest {
+
+    @Test
+    void selectedKernelMatchesScalarReference() {
+        Random random = new Random(42);
+        int rows = 37;
+        int dimension = 67; // not a multiple of any SIMD width, so the tail loop runs
+        float[] matrix = new float[rows * dimension];
+        for (int row = 0; row < rows; row++) {
+            float[] v = randomUnit(random, dimension);
+            System.arraycopy(v, 0, matrix, row * dimension, dimension);
+        }
+        float[][] queries = {randomUnit(random, dimension), randomUnit(random, dimension), randomUnit(random, dimension)};
+
+        float[][] expected = new float[queries.length][rows];
+        float[][] actual = new float[queries.length][rows];
+        DotProductKernels.scalar().dotAll(queries, matrix, rows, dimension, expected);
+        DotProductKernels.get().dotAll(queries, matrix, rows, dimension, actual);
+
+        for (int q = 0; q < queries.length; q++) {
+            for (int row = 0; row < rows; row++) {
+                assertEquals(naiveCosine(queries[q], matrix, row * dimension, dimension), expected[q][row], 1e-5);
+                assertEquals(expected[q][row], actual[q][row], 1e-5);
+            }
+        }
+    }
+
+    @Test
+    void configuredScalarForcesTheFallback() {
+        assertEquals(DotProductKernels.scalar().name(), DotProductKernels.forName("scalar").name());
+        assertEquals(DotProductKernels.get().name(), DotProductKernels.forName("auto").name());
+    }
+
+    @Test
+    void normalizeProducesUnitLengthAndKeepsZeroVectors() {
+        float[] v = VectorMath.normalize(new float[] {3f, 4f});
+        assertEquals(0.6f, v[0], 1e-6);
+        assertEquals(0.8f, v[1], 1e-6);
+
+        float[] zero = VectorMath.normalize(new float[] {0f, 0f});
+        assertEquals(0f, zero[0]);
+        assertEquals(0f, zero[1]);
+    }
+
+    private static float[] randomUnit(Random random, int dimension) {
+        float[] v = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return VectorMath.normalize(v);
+    }
+
+    private static double naiveCosine(float[] a, float[] matrix, int offset, int dimension) {
+        double dot = 0;
+        double na = 0;
+        double nb = 0;
+        for (int i = 0; i < dimension; i++) {
+            dot += a[i] * matrix[offset + i];
+            na += a[i] * a[i];
+            nb += matrix[offset + i] * matrix[offset + i];
+        }
+        return dot / (Math.sqrt(na) * Math.sqrt(nb));
+    }
+}
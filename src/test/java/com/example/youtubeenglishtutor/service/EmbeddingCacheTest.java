@@ -0,0 +1,163 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.youtubeenglishtutor.entity.EmbeddingCacheEntry;
+import com.example.youtubeenglishtutor.repository.EmbeddingCacheRepository;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class EmbeddingCacheTest {
+
+    private static final String MODEL = "text-embedding-3-small";
+
+    @Test
+    void normalizesWhitespaceButKeepsCase() {
+        assertEquals("Hello world again", EmbeddingCache.normalize("  Hello \n\tworld   again "));
+        assertEquals("", EmbeddingCache.normalize(null));
+        assertEquals("Caf\u00e9", EmbeddingCache.normalize("Cafe\u0301"));
+    }
+
+    @Test
+    void hashesNormalizedText() {
+        assertEquals(EmbeddingCache.hash("a  b"), EmbeddingCache.hash(" a\nb "));
+        assertNotEquals(EmbeddingCache.hash("a b"), EmbeddingCache.hash("A b"));
+        assertEquals(64, EmbeddingCache.hash("x").length());
+    }
+
+    @Test
+    void countsMemoryAndDatabaseHitsSeparately() {
+        FakeRepository db = new FakeRepository();
+        db.insert(MODEL, EmbeddingCache.hash("stored"), new float[] {1f, 2f});
+        EmbeddingCache cache = new EmbeddingCache(db.proxy(), new NoOpTransactionManager(), true, 100);
+
+        List<float[]> first = cache.getAll(MODEL, List.of("stored", "unknown"));
+        List<float[]> second = cache.getAll(MODEL, List.of("stored"));
+
+        assertArrayEquals(new float[] {1f, 2f}, first.get(0));
+        assertNull(first.get(1));
+        assertArrayEquals(new float[] {1f, 2f}, second.get(0));
+        EmbeddingCache.Stats stats = cache.stats();
+        assertEquals(1, stats.memoryHits());
+        assertEquals(2, stats.memoryMisses());
+        assertEquals(1, stats.dbHits());
+        assertEquals(1, stats.dbMisses());
+    }
+
+    @Test
+    void writesBackOnlyNewVectors() {
+        FakeRepository db = new FakeRepository();
+        db.insert(MODEL, EmbeddingCache.hash("old"), new float[] {0f});
+        EmbeddingCache cache = new EmbeddingCache(db.proxy(), new NoOpTransactionManager(), true, 0);
+
+        cache.putAll(MODEL, List.of("old", "new", " new "), List.of(new float[] {9f}, new float[] {3f}, new float[] {3f}));
+        List<float[]> read = cache.getAll(MODEL, List.of("old", "new"));
+
+        assertEquals(2, db.rows.size());
+        assertEquals(1, cache.stats().stored());
+        assertArrayEquals(new float[] {0f}, read.get(0));
+        assertArrayEquals(new float[] {3f}, read.get(1));
+        assertEquals(2, cache.stats().dbHits());
+    }
+
+    @Test
+    void concurrentInsertLosesOnlyTheConflictingRow() {
+        FakeRepository db = new FakeRepository();
+        // Inserted by another writer after our existence check ran.
+        db.insert(MODEL, EmbeddingCache.hash("b"), new float[] {7f});
+        db.hiddenFromLookup.add(EmbeddingCache.hash("b"));
+        EmbeddingCache cache = new EmbeddingCache(db.proxy(), new NoOpTransactionManager(), true, 0);
+
+        cache.putAll(MODEL, List.of("a", "b", "c"), List.of(new float[] {1f}, new float[] {2f}, new float[] {3f}));
+
+        assertEquals(3, db.rows.size());
+        assertEquals(2, cache.stats().stored());
+        assertArrayEquals(new float[] {7f}, EmbeddingCodec.decode(db.rows.get(MODEL + "|" + EmbeddingCache.hash("b")).getEmbeddingVector()));
+    }
+
+    /**
+     * In-memory embedding_cache with its unique (model, text_hash) constraint; saveAll is all-or-nothing like
+     * the real transaction.
+     */
+    private static final class FakeRepository {
+        final Map<String, EmbeddingCacheEntry> rows = new LinkedHashMap<>();
+        final Set<String> hiddenFromLookup = new HashSet<>();
+
+        void insert(String model, String hash, float[] vector) {
+            EmbeddingCacheEntry entry = new EmbeddingCacheEntry();
+            entry.setModel(model);
+            entry.setTextHash(hash);
+            entry.setEmbeddingVector(EmbeddingCodec.encode(vector, model));
+            rows.put(model + "|" + hash, entry);
+        }
+
+        EmbeddingCacheRepository proxy() {
+            return (EmbeddingCacheRepository) Proxy.newProxyInstance(
+                    EmbeddingCacheRepository.class.getClassLoader(),
+                    new Class<?>[] {EmbeddingCacheRepository.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "findByModelAndTextHashIn" -> find((String) args[0], (Collection<?>) args[1]);
+                        case "saveAll" -> saveAll((Iterable<?>) args[0]);
+                        case "save" -> saveAll(List.of(args[0])).get(0);
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "FakeEmbeddingCacheRepository";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private List<EmbeddingCacheEntry> find(String model, Collection<?> hashes) {
+            List<EmbeddingCacheEntry> found = new ArrayList<>();
+            for (Object hash : hashes) {
+                EmbeddingCacheEntry entry = rows.get(model + "|" + hash);
+                if (entry != null && !hiddenFromLookup.contains(hash)) {
+                    found.add(entry);
+                }
+            }
+            return found;
+        }
+
+        private List<EmbeddingCacheEntry> saveAll(Iterable<?> entities) {
+            List<EmbeddingCacheEntry> batch = new ArrayList<>();
+            for (Object o : entities) {
+                EmbeddingCacheEntry entry = (EmbeddingCacheEntry) o;
+                if (rows.containsKey(entry.getModel() + "|" + entry.getTextHash())) {
+                    throw new DataIntegrityViolationException("uq_embedding_cache_model_hash");
+                }
+                batch.add(entry);
+            }
+            batch.forEach(e -> rows.put(e.getModel() + "|" + e.getTextHash(), e));
+            return batch;
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
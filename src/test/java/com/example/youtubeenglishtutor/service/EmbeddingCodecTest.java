@@ -0,0 +1,43 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EmbeddingCodecTest {
+
+    @Test
+    void roundTripsVectorAndHeader() {
+        float[] vector = {0.25f, -1.5f, 3.0e-4f, 0f};
+        byte[] stored = EmbeddingCodec.encode(vector, "text-embedding-3-small");
+
+        assertEquals(4, EmbeddingCodec.dimension(stored));
+        assertEquals("text-embedding-3-small", EmbeddingCodec.model(stored));
+        assertArrayEquals(vector, EmbeddingCodec.decode(stored));
+        assertEquals(7 + "text-embedding-3-small".length() + 4 * Float.BYTES, stored.length);
+    }
+
+    @Test
+    void encodesDoubleListsAsFloat32() {
+        byte[] stored = EmbeddingCodec.encode(List.of(0.1, 0.2), "m");
+        assertArrayEquals(new float[] {0.1f, 0.2f}, EmbeddingCodec.decode(stored));
+    }
+
+    @Test
+    void parsesLegacyTextFormat() {
+        assertArrayEquals(new float[] {0.5f, -0.25f, 1f}, EmbeddingCodec.parseLegacy("0.500000, -0.250000,1.000000,"));
+        assertEquals(0, EmbeddingCodec.parseLegacy("").length);
+    }
+
+    @Test
+    void rejectsForeignOrTruncatedBytes() {
+        assertEquals(0, EmbeddingCodec.decode(null).length);
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[] {1, 2, 3}));
+        byte[] stored = EmbeddingCodec.encode(new float[] {1f, 2f}, "m");
+        byte[] truncated = java.util.Arrays.copyOf(stored, stored.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.youtubeenglishtutor.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for the OpenAI API ({@code /v1/chat/completions}, streamed or not, and
+ * {@code /v1/embeddings}) for exercising the OpenAI services, retries and throughput without the real API.
+ *
+ * <p>Quiz content is synthesized from the transcript in the prompt and honours the requested count and WRITING
+ * item; embeddings are deterministic unit vectors per input text, returned out of order as the real API may.
+ * Latency is log-normal around {@code medianLatencyMs} with {@code p99LatencyMs} as the 99th percentile,
+ * {@code errorRate} of requests fail with 500, and every {@code burstEvery} requests a run of
+ * {@code burstLength} 429s (with {@code Retry-After}) is served. {@code streamedFraction} below 1 cuts streamed
+ * quizzes short with finish_reason=length.
+ *
+ * <p>Point the app at a standalone instance with {@code app.openai.base-url=http://localhost:<port>/v1}:
+ * <pre>
+ * java -cp target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *     com.example.youtubeenglishtutor.service.FakeOpenAiServer 8089 400 2500 0.01 200 5
+ * </pre>
+ */
+public final class FakeOpenAiServer implements AutoCloseable {
+
+    private static final Pattern REQUESTED_COUNT = Pattern.compile("EXACTLY (\\d+) questions");
+    private static final Pattern WORD = Pattern.compile("[A-Za-z]{4,}");
+
+    public record Options(
+            long medianLatencyMs,
+            long p99LatencyMs,
+            double errorRate,
+            int burstEvery,
+            int burstLength,
+            int retryAfterSeconds,
+            int embeddingDimensions,
+            double streamedFraction) {
+
+        public static Options instant() {
+            return new Options(0, 0, 0, 0, 0, 1, 64, 1.0);
+        }
+
+        public Options withLatency(long medianMs, long p99Ms) {
+            return new Options(medianMs, p99Ms, errorRate, burstEvery, burstLength, retryAfterSeconds, embeddingDimensions, streamedFraction);
+        }
+
+        public Options withErrorRate(double rate) {
+            return new Options(medianLatencyMs, p99LatencyMs, rate, burstEvery, burstLength, retryAfterSeconds, embeddingDimensions, streamedFraction);
+        }
+
+        public Options withBursts(int every, int length, int retryAfter) {
+            return new Options(medianLatencyMs, p99LatencyMs, errorRate, every, length, retryAfter, embeddingDimensions, streamedFraction);
+        }
+
+        /**
+         * Streams only the first {@code fraction} of each quiz and ends with finish_reason=length, like a
+         * completion that ran out of tokens.
+         */
+        public Options withTruncatedStreams(double fraction) {
+            return new Options(medianLatencyMs, p99LatencyMs, errorRate, burstEvery, burstLength, retryAfterSeconds, embeddingDimensions, fraction);
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong chatRequests = new AtomicLong();
+    private final AtomicLong embeddingRequests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private FakeOpenAiServer(int port, Options options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/v1/chat/completions", exchange -> handle(exchange, this::chat));
+        server.createContext("/v1/embeddings", exchange -> handle(exchange, this::embeddings));
+        server.setExecutor(executor);
+    }
+
+    public static FakeOpenAiServer start(Options options) throws IOException {
+        return start(0, options);
+    }
+
+    public static FakeOpenAiServer start(int port, Options options) throws IOException {
+        FakeOpenAiServer fake = new FakeOpenAiServer(port, options);
+        fake.server.start();
+        return fake;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("requests", requests.get());
+        map.put("chat", chatRequests.get());
+        map.put("embeddings", embeddingRequests.get());
+        map.put("rateLimited", rateLimited.get());
+        map.put("failed", failed.get());
+        return map;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Handler {
+        void respond(HttpExchange exchange, JsonNode body) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            long n = requests.incrementAndGet();
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            sleep(sampleLatency());
+            if (options.burstEvery() > 0 && (n - 1) % options.burstEvery() < options.burstLength()) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(options.retryAfterSeconds()));
+                sendJson(exchange, 429, error("Rate limit reached (fake burst)", "rate_limit_exceeded"));
+                return;
+            }
+            if (options.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.errorRate()) {
+                failed.incrementAndGet();
+                sendJson(exchange, 500, error("The server had an error (fake)", "server_error"));
+                return;
+            }
+            handler.respond(exchange, body);
+        }
+    }
+
+    private void chat(HttpExchange exchange, JsonNode body) throws IOException {
+        chatRequests.incrementAndGet();
+        String system = body.path("messages").path(0).path("content").asText();
+        String user = body.path("messages").path(1).path("content").asText();
+        Matcher m = REQUESTED_COUNT.matcher(system);
+        int count = m.find() ? Integer.parseInt(m.group(1)) : 5;
+        String content = objectMapper.writeValueAsString(quiz(user, count, user.contains("WRITING")));
+        int promptTokens = TokenEstimator.estimate(system) + TokenEstimator.estimate(user);
+        int completionTokens = TokenEstimator.estimate(content);
+        if (!body.path("stream").asBoolean(false)) {
+            ObjectNode response = objectMapper.createObjectNode();
+            response.putArray("choices").addObject().putObject("message")
+                    .put("role", "assistant")
+                    .put("content", content);
+            response.set("usage", usage(promptTokens, completionTokens));
+            sendJson(exchange, 200, response);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        boolean truncated = options.streamedFraction() < 1.0;
+        if (truncated) {
+            content = content.substring(0, (int) (content.length() * Math.max(0.0, options.streamedFraction())));
+        }
+        for (int i = 0; i < content.length(); i += 16) {
+            ObjectNode chunk = objectMapper.createObjectNode();
+            chunk.putArray("choices").addObject().putObject("delta")
+                    .put("content", content.substring(i, Math.min(content.length(), i + 16)));
+            writeEvent(out, objectMapper.writeValueAsString(chunk));
+        }
+        ObjectNode finish = objectMapper.createObjectNode();
+        finish.putArray("choices").addObject().put("finish_reason", truncated ? "length" : "stop").putObject("delta");
+        writeEvent(out, objectMapper.writeValueAsString(finish));
+        if (body.path("stream_options").path("include_usage").asBoolean(false)) {
+            ObjectNode last = objectMapper.createObjectNode();
+            last.putArray("choices");
+            last.set("usage", usage(promptTokens, completionTokens));
+            writeEvent(out, objectMapper.writeValueAsString(last));
+        }
+        writeEvent(out, "[DONE]");
+    }
+
+    private void embeddings(HttpExchange exchange, JsonNode body) throws IOException {
+        embeddingRequests.incrementAndGet();
+        List<String> inputs = new ArrayList<>();
+        JsonNode input = body.path("input");
+        if (input.isArray()) {
+            input.forEach(node -> inputs.add(node.asText()));
+        } else {
+            inputs.add(input.asText());
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        int tokens = 0;
+        for (int i = inputs.size() - 1; i >= 0; i--) {
+            ObjectNode item = data.addObject();
+            item.put("index", i);
+            ArrayNode vector = item.putArray("embedding");
+            for (double v : vector(inputs.get(i), options.embeddingDimensions())) {
+                vector.add(v);
+            }
+            tokens += TokenEstimator.estimate(inputs.get(i));
+        }
+        response.set("usage", usage(tokens, 0));
+        sendJson(exchange, 200, response);
+    }
+
+    /**
+     * A type-mixed quiz whose questions quote words from the transcript, so different transcripts produce
+     * different (and de-duplicable) questions.
+     */
+    private ArrayNode quiz(String transcript, int count, boolean includeWriting) {
+        List<String> words = new ArrayList<>();
+        Matcher m = WORD.matcher(transcript.substring(Math.max(0, transcript.indexOf("Transcript:"))));
+        while (m.find()) {
+            words.add(m.group().toLowerCase());
+        }
+        if (words.size() < 4) {
+            words.addAll(List.of("video", "speaker", "topic", "example"));
+        }
+        ArrayNode questions = objectMapper.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            String word = words.get((i * 7) % words.size());
+            String other = words.get((i * 7 + 3) % words.size());
+            ObjectNode q = questions.addObject();
+            if (includeWriting && i == count - 1) {
+                q.put("type", "WRITING");
+                q.put("text", "In two sentences, explain what the speaker says about \"" + word + "\" (item " + (i + 1) + ").");
+                q.putArray("options");
+                q.putArray("correct").add("Mentions " + word).add("Relates it to " + other);
+            } else if (i % 3 == 2) {
+                q.put("type", "TRUE_FALSE");
+                q.put("text", "True or false: the speaker mentions \"" + word + "\" before \"" + other + "\" (item " + (i + 1) + ").");
+                q.putArray("options").add("True").add("False");
+                q.putArray("correct").add("True");
+            } else {
+                q.put("type", "SINGLE_CHOICE");
+                q.put("text", "Which word does the speaker use near \"" + other + "\"? (item " + (i + 1) + ")");
+                q.putArray("options").add(word).add("banana").add("spaceship").add("umbrella");
+                q.putArray("correct").add(word);
+            }
+        }
+        return questions;
+    }
+
+    static double[] vector(String text, int dimensions) {
+        Random random = new Random(text.hashCode());
+        double[] v = new double[Math.max(1, dimensions)];
+        double norm = 0;
+        for (int i = 0; i < v.length; i++) {
+            v[i] = random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < v.length; i++) {
+            v[i] /= norm;
+        }
+        return v;
+    }
+
+    private long sampleLatency() {
+        if (options.medianLatencyMs() <= 0) {
+            return 0;
+        }
+        // Log-normal: median e^mu, 99th percentile e^(mu + 2.326 sigma).
+        double mu = Math.log(options.medianLatencyMs());
+        double sigma = options.p99LatencyMs() > options.medianLatencyMs()
+                ? (Math.log(options.p99LatencyMs()) - mu) / 2.326
+                : 0;
+        return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    private ObjectNode usage(int promptTokens, int completionTokens) {
+        ObjectNode usage = objectMapper.createObjectNode();
+        usage.put("prompt_tokens", promptTokens);
+        usage.put("completion_tokens", completionTokens);
+        usage.put("total_tokens", promptTokens + completionTokens);
+        return usage;
+    }
+
+    private ObjectNode error(String message, String code) {
+        ObjectNode root = objectMapper.createObjectNode();
+        root.putObject("error").put("message", message).put("code", code);
+        return root;
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void writeEvent(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Args: {@code [port] [medianMs] [p99Ms] [errorRate] [burstEvery] [burstLength]}.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        Options options = Options.instant()
+                .withLatency(arg(args, 1, 300), arg(args, 2, 2000))
+                .withErrorRate(args.length > 3 ? Double.parseDouble(args[3]) : 0)
+                .withBursts((int) arg(args, 4, 0), (int) arg(args, 5, 0), 1);
+        FakeOpenAiServer fake = start(port, options);
+        System.out.println("Fake OpenAI listening; set app.openai.base-url=" + fake.baseUrl() + " (" + options + ")");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println("Served " + fake.stats())));
+    }
+
+    private static long arg(String[] args, int index, long defaultValue) {
+        return args.length > index ? Long.parseLong(args[index]) : defaultValue;
+    }
+}
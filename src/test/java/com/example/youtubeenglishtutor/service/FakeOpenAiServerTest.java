@@ -0,0 +1,161 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import com.example.youtubeenglishtutor.web.LearnerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.HttpServerErrorException;
+
+class FakeOpenAiServerTest {
+
+    private static final String TRANSCRIPT = "Today we talk about gardening. Tomatoes need sunlight, water and patience. "
+            + "Compost improves the soil, and mulching keeps moisture in during summer.";
+
+    private FakeOpenAiServer server;
+    private OutboundHttpClients http;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (http != null) {
+            http.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void streamedGenerationDeliversRequestedQuestions() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant());
+        OpenAiQuestionService service = questionService(true);
+        List<Question> streamed = new ArrayList<>();
+
+        List<Question> questions = service.generateQuestionsFromTranscript(TRANSCRIPT, DifficultyLevel.NORMAL, 6, true, streamed::add);
+
+        assertEquals(6, questions.size());
+        assertEquals(questions, streamed);
+        assertEquals(QuestionType.WRITING, questions.get(5).getType());
+    }
+
+    @Test
+    void streamCutOffMidArrayFailsInsteadOfReturningAShortQuiz() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant().withTruncatedStreams(0.6));
+        OpenAiQuestionService service = questionService(true);
+        List<Question> streamed = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class,
+                () -> service.generateQuestionsFromTranscript(TRANSCRIPT, DifficultyLevel.NORMAL, 6, true, streamed::add));
+        assertTrue(streamed.size() > 0 && streamed.size() < 6, "streamed " + streamed.size());
+    }
+
+    @Test
+    void rateLimitBurstsAreRetriedTransparently() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant().withBursts(10, 2, 0));
+        OpenAiQuestionService service = questionService(false);
+
+        List<Question> questions = service.generateQuestionsFromTranscript(TRANSCRIPT, DifficultyLevel.NORMAL, 4, false);
+
+        assertEquals(4, questions.size());
+        assertEquals(2L, server.stats().get("rateLimited"));
+        assertEquals(3L, server.stats().get("requests"));
+        assertEquals(2L, endpointStats(OutboundHttpClients.OPENAI).get("retries"));
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuit() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant().withErrorRate(1.0));
+        OpenAiQuestionService service = questionService(false);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(HttpServerErrorException.class,
+                    () -> service.generateQuestionsFromTranscript(TRANSCRIPT, DifficultyLevel.NORMAL, 3, false));
+        }
+        assertThrows(CircuitOpenException.class,
+                () -> service.generateQuestionsFromTranscript(TRANSCRIPT, DifficultyLevel.NORMAL, 3, false));
+        assertEquals(2L, server.stats().get("requests"));
+    }
+
+    @Test
+    void embeddingsAreReassembledInInputOrder() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant());
+        OpenAiEmbeddingService service = new OpenAiEmbeddingService(
+                new EmbeddingCache(null, null, false, 0), disabledRateLimiter(), http(), "test-key", server.baseUrl(),
+                "text-embedding-3-small", 2, 100000, 2);
+        List<String> texts = List.of("first chunk", "second chunk", "third chunk");
+
+        List<List<Double>> vectors = service.embedAll(texts);
+
+        assertEquals(2L, server.stats().get("embeddings"));
+        for (int i = 0; i < texts.size(); i++) {
+            double[] expected = FakeOpenAiServer.vector(texts.get(i), 64);
+            for (int d = 0; d < expected.length; d++) {
+                assertEquals(expected[d], vectors.get(i).get(d), 1e-9);
+            }
+        }
+        service.shutdown();
+    }
+
+    @Test
+    void promptBudgetIsAppliedPerSegmentSoLongVideosAreFullyCovered() throws Exception {
+        server = FakeOpenAiServer.start(FakeOpenAiServer.Options.instant());
+        // ~40k chars of distinct words: over the 1000-token budget as a whole, so trimming before segmenting would
+        // have sent a single prompt.
+        String transcript = PromptBudgeterTest.randomSentences(new Random(7), 40000);
+        OpenAiQuestionService service = questionService(false, true, new PromptBudgeter(true, 1000));
+
+        List<Question> questions = service.generateQuestionsFromTranscript(transcript, DifficultyLevel.NORMAL, 10, false);
+
+        assertTrue((Long) server.stats().get("requests") >= 5, server.stats().toString());
+        // The fake quotes prompt words, so a question quoting the video's last stretch proves it was sent.
+        List<String> ending = List.of(transcript.substring(transcript.length() - 6000).split("[ .]+"));
+        assertTrue(questions.stream().anyMatch(q -> ending.stream().anyMatch(w -> w.length() == 6 && q.getText().contains(w))));
+    }
+
+    private OpenAiQuestionService questionService(boolean stream) {
+        return questionService(stream, false, new PromptBudgeter(true, 6000));
+    }
+
+    private OpenAiQuestionService questionService(boolean stream, boolean segmented, PromptBudgeter budgeter) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObservabilityService observability = new ObservabilityService(null, objectMapper) {
+            @Override
+            public void logGenerationEvent(String learnerId, String model, long latencyMs, int promptTokens,
+                    int completionTokens, Map<String, Object> details) {
+            }
+        };
+        return new OpenAiQuestionService(objectMapper, budgeter, observability, new LearnerContext(),
+                disabledRateLimiter(), http(), "test-key", server.baseUrl(), "gpt-test", stream, segmented, 8000, 16000, 1);
+    }
+
+    private OutboundHttpClients http() {
+        if (http == null) {
+            MockEnvironment env = new MockEnvironment()
+                    .withProperty("app.http.openai.backoff-ms", "10")
+                    .withProperty("app.http.openai-embeddings.backoff-ms", "10")
+                    .withProperty("app.http.circuit.failure-threshold", "2")
+                    .withProperty("app.http.circuit.open-ms", "60000");
+            http = new OutboundHttpClients(env, disabledRateLimiter(), 10, 10, 30000, 300000);
+        }
+        return http;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> endpointStats(String endpoint) {
+        return (Map<String, Object>) ((Map<String, Object>) http.stats().get("endpoints")).get(endpoint);
+    }
+
+    private static OpenAiRateLimiter disabledRateLimiter() {
+        return new OpenAiRateLimiter(false, 500, 200000);
+    }
+}
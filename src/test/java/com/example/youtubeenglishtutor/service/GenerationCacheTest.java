@@ -0,0 +1,28 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import org.junit.jupiter.api.Test;
+
+class GenerationCacheTest {
+
+    private static final String TRANSCRIPT_HASH = ContentHashes.sha256Hex("hello world");
+
+    @Test
+    void keyIsStableAndTreatsMissingDifficultyAsNormal() {
+        assertEquals(
+                GenerationCache.key(TRANSCRIPT_HASH, "gpt", DifficultyLevel.NORMAL, 10, false),
+                GenerationCache.key(TRANSCRIPT_HASH, "gpt", null, 10, false));
+    }
+
+    @Test
+    void keyChangesWithEveryComponent() {
+        String base = GenerationCache.key(TRANSCRIPT_HASH, "gpt", DifficultyLevel.NORMAL, 10, false);
+        assertNotEquals(base, GenerationCache.key(ContentHashes.sha256Hex("other"), "gpt", DifficultyLevel.NORMAL, 10, false));
+        assertNotEquals(base, GenerationCache.key(TRANSCRIPT_HASH, "gpt-4o", DifficultyLevel.NORMAL, 10, false));
+        assertNotEquals(base, GenerationCache.key(TRANSCRIPT_HASH, "gpt", DifficultyLevel.HARDER, 10, false));
+        assertNotEquals(base, GenerationCache.key(TRANSCRIPT_HASH, "gpt", DifficultyLevel.NORMAL, 15, false));
+        assertNotEquals(base, GenerationCache.key(TRANSCRIPT_HASH, "gpt", DifficultyLevel.NORMAL, 10, true));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class Int8QuantizerTest {
+
+    @Test
+    void quantizedDotProductIsCloseToExact() {
+        Random random = new Random(3);
+        float[] vector = unit(random, 256);
+        float[] query = unit(random, 256);
+        byte[] codes = new byte[vector.length];
+
+        float scale = Int8Quantizer.quantize(vector, codes, 0);
+        float approx = Int8Quantizer.dot(query, codes, 0, codes.length) * scale;
+
+        assertEquals(ScalarDotProductKernel.dot(query, vector, 0, vector.length), approx, 0.01);
+    }
+
+    @Test
+    void rescoringRecoversExactTopK() {
+        Random random = new Random(11);
+        VectorIndex.Builder exactBuilder = VectorIndex.builder();
+        VectorIndex.Builder quantizedBuilder = VectorIndex.builder().quantized(true);
+        for (long id = 0; id < 300; id++) {
+            float[] v = unit(random, 64);
+            exactBuilder.add(id, "c" + id, v.clone());
+            quantizedBuilder.add(id, "c" + id, v.clone());
+        }
+        VectorIndex exact = exactBuilder.build();
+        VectorIndex quantized = quantizedBuilder.build();
+        float[][] queries = {unit(random, 64), unit(random, 64), unit(random, 64), unit(random, 64)};
+
+        QuantizationReport report = QuantizationReport.run(exact, quantized, queries, 5, 50, DotProductKernels.scalar());
+
+        assertTrue(quantized.isQuantized());
+        assertTrue(quantized.memoryBytes() < exact.memoryBytes());
+        assertEquals(1.0, report.rescoredRecall(), 1e-9);
+        assertTrue(report.quantizedRecall() >= 0.6);
+    }
+
+    private static float[] unit(Random random, int dimension) {
+        float[] v = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return VectorMath.normalize(v);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonArrayStreamParserTest {
+
+    @Test
+    void emitsEachObjectAsSoonAsItCloses() {
+        List<String> objects = new ArrayList<>();
+        JsonArrayStreamParser parser = new JsonArrayStreamParser(objects::add);
+
+        parser.feed("```json\n[{\"type\":\"SINGLE_CHOICE\",\"text\":\"Pick {one}");
+        assertEquals(0, objects.size());
+        parser.feed("\",\"options\":[\"a\",\"b\"]},");
+        assertEquals(List.of("{\"type\":\"SINGLE_CHOICE\",\"text\":\"Pick {one}\",\"options\":[\"a\",\"b\"]}"), objects);
+
+        parser.feed(" {\"text\":\"He said \\\"hi\\\" ]\",\"nested\":{\"k\":1}}");
+        parser.feed("]\n```");
+
+        assertEquals(2, objects.size());
+        assertEquals("{\"text\":\"He said \\\"hi\\\" ]\",\"nested\":{\"k\":1}}", objects.get(1));
+        assertTrue(parser.isComplete());
+    }
+
+    @Test
+    void ignoresTopLevelObjects() {
+        List<String> objects = new ArrayList<>();
+        JsonArrayStreamParser parser = new JsonArrayStreamParser(objects::add);
+
+        parser.feed("{\"questions\":{\"a\":1}}");
+
+        assertEquals(0, parser.objectCount());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LocalEmbeddingServiceTest {
+
+    private final LocalEmbeddingService service = new LocalEmbeddingService(256, 3, 5);
+
+    @Test
+    void deterministicAndUnitLength() {
+        List<Double> first = service.embed("The speaker recommends packing light.");
+        List<Double> second = new LocalEmbeddingService(256, 3, 5).embed("The speaker recommends packing light.");
+
+        assertEquals(first, second);
+        assertEquals(256, first.size());
+        assertEquals(1.0, first.stream().mapToDouble(v -> v * v).sum(), 1e-5);
+    }
+
+    @Test
+    void relatedTextScoresHigherThanUnrelated() {
+        List<Double> query = service.embed("What does the speaker say about packing?");
+        double related = dot(query, service.embed("First, pack light and bring only what you need."));
+        double unrelated = dot(query, service.embed("Quarterly revenue grew by twelve percent."));
+
+        assertTrue(related > unrelated, related + " <= " + unrelated);
+    }
+
+    @Test
+    void blankTextGivesZeroVector() {
+        assertTrue(service.embed("   ").stream().allMatch(v -> v == 0.0));
+    }
+
+    private static double dot(List<Double> a, List<Double> b) {
+        double sum = 0;
+        for (int i = 0; i < a.size(); i++) {
+            sum += a.get(i) * b.get(i);
+        }
+        return sum;
+    }
+}
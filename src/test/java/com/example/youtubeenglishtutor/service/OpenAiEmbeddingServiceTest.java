@@ -0,0 +1,35 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class OpenAiEmbeddingServiceTest {
+
+    @Test
+    void packsBatchesByItemCount() {
+        List<String> texts = Collections.nCopies(5, "short");
+        List<List<String>> batches = OpenAiEmbeddingService.planBatches(texts, 2, 1000);
+
+        assertEquals(List.of(2, 2, 1), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    void packsBatchesByTokenBudgetAndKeepsOrder() {
+        String big = "x".repeat(400); // ~101 tokens
+        List<String> texts = List.of("a", big, "b", big, "c");
+        List<List<String>> batches = OpenAiEmbeddingService.planBatches(texts, 100, 150);
+
+        assertEquals(List.of(List.of("a", big, "b"), List.of(big, "c")), batches);
+    }
+
+    @Test
+    void oversizedTextGetsItsOwnBatch() {
+        String huge = "y".repeat(10_000);
+        List<List<String>> batches = OpenAiEmbeddingService.planBatches(List.of(huge, "z"), 100, 50);
+
+        assertEquals(List.of(List.of(huge), List.of("z")), batches);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PromptBudgeterTest {
+
+    @Test
+    void estimatesShortWordsAsOneTokenAndLongWordsByLength() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(4, TokenEstimator.estimate("I like the sea"));
+        assertEquals(4, TokenEstimator.estimate("internationally"));
+        assertEquals(4, TokenEstimator.estimate("It's 2024."));
+    }
+
+    @Test
+    void removesMarkersFillersAndRollingRepeats() {
+        String raw = "[Music] so um today we will so today we will talk about travel (laughs) talk about travel and food >> uh okay";
+        assertEquals("so today we will talk about travel and food okay", PromptBudgeter.compress(raw));
+    }
+
+    @Test
+    void keepsTextAfterAnUnclosedOrLongBracket() {
+        assertEquals("she said (laughs and then we left the room", PromptBudgeter.compress("she said (laughs and then we left the room"));
+        assertEquals("that was sad :( but we moved on", PromptBudgeter.compress("that was sad :( but we moved on"));
+        assertEquals("the city (which is where my grandparents grew up and met) is lovely",
+                PromptBudgeter.compress("the city (which is where my grandparents grew up and met) is lovely"));
+        assertEquals("cut (mid. caption then more", PromptBudgeter.compress("cut (mid. caption [Applause] then more"));
+    }
+
+    @Test
+    void keepsGenuineSingleWordRepeats() {
+        assertEquals("very very good", PromptBudgeter.compress("very very good"));
+    }
+
+    @Test
+    void selectsInformativePassagesInOriginalOrderWithinBudget() {
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            parts.add("the the the and and and it is it is a a a so so so yes yes");
+        }
+        parts.add(5, "volcanoes erupt when magma pressure builds beneath tectonic plates");
+        parts.add(150, "glaciers carve valleys through slow relentless erosion over centuries");
+        String text = String.join(" ", parts);
+
+        String selected = PromptBudgeter.selectWithinBudget(text, 600);
+
+        assertTrue(TokenEstimator.estimate(selected) <= 600, selected);
+        assertTrue(selected.contains("volcanoes erupt"), selected);
+        assertTrue(selected.contains("glaciers carve"), selected);
+        assertTrue(selected.indexOf("volcanoes") < selected.indexOf("glaciers"));
+        assertTrue(selected.contains("…"));
+    }
+
+    @Test
+    void condenseOnlyCompressesAndFitOnlyTrims() {
+        PromptBudgeter budgeter = new PromptBudgeter(true, 50);
+        String longText = randomSentences(new Random(3), 2000);
+
+        assertEquals(PromptBudgeter.compress(longText), budgeter.condense(longText));
+        assertTrue(TokenEstimator.estimate(budgeter.condense(longText)) > 50);
+        assertTrue(TokenEstimator.estimate(budgeter.fit(longText)) <= 50);
+        assertEquals("Short enough.", budgeter.fit("Short enough."));
+    }
+
+    @Test
+    void leavesTextUnderBudgetUntouched() {
+        PromptBudgeter budgeter = new PromptBudgeter(true, 6000);
+        PromptBudgeter.Prepared prepared = budgeter.prepare("Hello everyone, welcome back.");
+        assertEquals("Hello everyone, welcome back.", prepared.text());
+        assertEquals(prepared.compressedTokens(), prepared.promptTokens());
+        assertFalse(prepared.originalTokens() < prepared.promptTokens());
+    }
+
+    /**
+     * Sentences of made-up words, so nothing is dropped as a filler or a rolling repeat.
+     */
+    static String randomSentences(Random random, int minChars) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < minChars) {
+            for (int w = 0; w < 8; w++) {
+                for (int c = 0; c < 6; c++) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+                sb.append(w < 7 ? " " : ". ");
+            }
+        }
+        return sb.toString().trim();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.youtubeenglishtutor.entity.BankQuestion;
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class QuestionBankTest {
+
+    @Test
+    void validatesStructureByType() {
+        assertTrue(QuestionBank.isValid(question(QuestionType.SINGLE_CHOICE, "Where did she travel?", "Paris;Rome", "Rome")));
+        assertFalse(QuestionBank.isValid(question(QuestionType.SINGLE_CHOICE, "Where did she travel?", "Paris;Rome", "Berlin")));
+        assertFalse(QuestionBank.isValid(question(QuestionType.SINGLE_CHOICE, "Where did she travel?", "Paris;Rome", "Paris;Rome")));
+        assertTrue(QuestionBank.isValid(question(QuestionType.MULTIPLE_CHOICE, "Which cities were named?", "Paris;Rome;Oslo", "Paris;Rome")));
+        assertTrue(QuestionBank.isValid(question(QuestionType.TRUE_FALSE, "The speaker likes coffee.", "True;False", "True")));
+        assertFalse(QuestionBank.isValid(question(QuestionType.TRUE_FALSE, "The speaker likes coffee.", "True;False", "Maybe")));
+        assertFalse(QuestionBank.isValid(question(QuestionType.FILL_IN_BLANK, "She went to ___ on Monday.", null, null)));
+        assertFalse(QuestionBank.isValid(question(QuestionType.WRITING, "Why?", null, null)));
+    }
+
+    @Test
+    void picksEvenTypeMixWithOneWritingInBankOrder() {
+        List<BankQuestion> pool = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            pool.add(bank(QuestionType.SINGLE_CHOICE, 0));
+        }
+        pool.add(bank(QuestionType.TRUE_FALSE, 0));
+        pool.add(bank(QuestionType.TRUE_FALSE, 0));
+        pool.add(bank(QuestionType.WRITING, 0));
+
+        List<BankQuestion> picked = QuestionBank.pick(pool, 5, true, 1.5, new Random(1));
+
+        assertEquals(5, picked.size());
+        assertEquals(1, picked.stream().filter(q -> q.getType() == QuestionType.WRITING).count());
+        assertEquals(2, picked.stream().filter(q -> q.getType() == QuestionType.TRUE_FALSE).count());
+        for (int i = 1; i < picked.size(); i++) {
+            assertTrue(picked.get(i - 1).getText().compareTo(picked.get(i).getText()) < 0);
+        }
+    }
+
+    @Test
+    void prefersLeastServedQuestions() {
+        List<BankQuestion> pool = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            pool.add(bank(QuestionType.FILL_IN_BLANK, i < 3 ? 5 : 0));
+        }
+        List<BankQuestion> picked = QuestionBank.pick(pool, 3, false, 1.5, new Random(7));
+        assertTrue(picked.stream().allMatch(q -> q.getServedCount() == 0));
+    }
+
+    @Test
+    void refusesWhenPoolIsTooSmallOrLacksWriting() {
+        List<BankQuestion> pool = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            pool.add(bank(QuestionType.SINGLE_CHOICE, 0));
+        }
+        assertTrue(QuestionBank.pick(pool, 5, false, 1.5, new Random(1)).isEmpty());
+        assertTrue(QuestionBank.pick(pool, 3, true, 1.5, new Random(1)).isEmpty());
+        assertEquals(4, QuestionBank.pick(pool, 4, false, 1.5, new Random(1)).size());
+    }
+
+    private static Question question(QuestionType type, String text, String options, String correct) {
+        Question q = new Question();
+        q.setType(type);
+        q.setText(text);
+        q.setOptions(options);
+        q.setCorrectAnswer(correct);
+        return q;
+    }
+
+    private static int counter;
+
+    private static BankQuestion bank(QuestionType type, int served) {
+        BankQuestion q = new BankQuestion();
+        q.setType(type);
+        q.setText("q%03d".formatted(counter++));
+        q.setServedCount(served);
+        return q;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class QuestionMergerTest {
+
+    @Test
+    void allocatesProportionallyAndCoversEverySegment() {
+        assertArrayEquals(new int[] {5, 3, 2}, QuestionMerger.allocate(new int[] {8000, 5000, 3000}, 10));
+        assertArrayEquals(new int[] {3, 1, 1}, QuestionMerger.allocate(new int[] {8000, 300, 200}, 5));
+        assertEquals(15, Arrays.stream(QuestionMerger.allocate(new int[] {7, 7, 7, 7}, 15)).sum());
+    }
+
+    @Test
+    void dropsNearDuplicatesAndFillsFromLeftovers() {
+        List<Question> first = List.of(
+                q("What does the speaker pack for the trip?", QuestionType.SINGLE_CHOICE),
+                q("Where does the trip start?", QuestionType.SINGLE_CHOICE),
+                q("Why is the passport important?", QuestionType.TRUE_FALSE));
+        List<Question> second = List.of(
+                q("what does the speaker pack for the trip", QuestionType.SINGLE_CHOICE),
+                q("Summarize the advice in two sentences.", QuestionType.WRITING));
+
+        List<Question> merged = QuestionMerger.merge(List.of(first, second), new int[] {2, 2}, 4, true);
+
+        assertEquals(List.of(
+                "What does the speaker pack for the trip?",
+                "Where does the trip start?",
+                "Why is the passport important?",
+                "Summarize the advice in two sentences."), merged.stream().map(Question::getText).toList());
+    }
+
+    private static Question q(String text, QuestionType type) {
+        Question question = new Question();
+        question.setText(text);
+        question.setType(type);
+        return question;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+class ResilientHttpInterceptorTest {
+
+    private static final byte[] BODY = "{\"model\":\"gpt-test\"}".getBytes();
+
+    private final List<byte[]> charged = new ArrayList<>();
+
+    @Test
+    void retriesServerErrorsAndChargesEachRetry() throws Exception {
+        ScriptedExecution execution = new ScriptedExecution(503, 503, 200);
+
+        ClientHttpResponse response = interceptor(3, true, new CircuitBreaker(5, 60000)).intercept(post(), BODY, execution);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(3, execution.calls);
+        assertEquals(2, charged.size());
+    }
+
+    @Test
+    void doesNotRetryPostUnlessTheEndpointAllowsIt() throws Exception {
+        ScriptedExecution execution = new ScriptedExecution(503, 200);
+
+        ClientHttpResponse response = interceptor(3, false, new CircuitBreaker(5, 60000)).intercept(post(), BODY, execution);
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals(1, execution.calls);
+        assertEquals(0, charged.size());
+    }
+
+    @Test
+    void rateLimitingDoesNotTripTheBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        ScriptedExecution execution = new ScriptedExecution(429, 429, 200);
+
+        ClientHttpResponse response = interceptor(3, true, breaker).intercept(post(), BODY, execution);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0L, breaker.timesOpened());
+    }
+
+    @Test
+    void singleAttemptScopeDisablesRetries() throws Exception {
+        ScriptedExecution execution = new ScriptedExecution(503, 200);
+
+        ClientHttpResponse response;
+        try (ResilientHttpInterceptor.Scope ignored = ResilientHttpInterceptor.singleAttempt()) {
+            response = interceptor(3, true, new CircuitBreaker(5, 60000)).intercept(post(), BODY, execution);
+        }
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals(1, execution.calls);
+        assertEquals(0, charged.size());
+    }
+
+    @Test
+    void scopeIsCarriedOntoWorkerThreads() throws Exception {
+        ScriptedExecution execution = new ScriptedExecution(503, 200);
+        ResilientHttpInterceptor interceptor = interceptor(3, true, new CircuitBreaker(5, 60000));
+
+        Supplier<Integer> work;
+        try (ResilientHttpInterceptor.Scope ignored = ResilientHttpInterceptor.singleAttempt()) {
+            work = ResilientHttpInterceptor.inheritingScope(() -> {
+                try {
+                    return interceptor.intercept(post(), BODY, execution).getStatusCode().value();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        assertEquals(503, CompletableFuture.supplyAsync(work).get());
+        assertEquals(1, execution.calls);
+    }
+
+    @Test
+    void connectionFailuresAreRetriedThenRethrown() {
+        ScriptedExecution execution = new ScriptedExecution(-1, -1);
+
+        assertThrows(IOException.class,
+                () -> interceptor(2, true, new CircuitBreaker(5, 60000)).intercept(post(), BODY, execution));
+        assertEquals(2, execution.calls);
+        assertEquals(1, charged.size());
+    }
+
+    @Test
+    void openCircuitShortCircuitsWithoutCallingUpstream() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 60000);
+        breaker.onFailure(System.currentTimeMillis());
+        ScriptedExecution execution = new ScriptedExecution(200);
+
+        assertThrows(CircuitOpenException.class,
+                () -> interceptor(3, true, breaker).intercept(post(), BODY, execution));
+        assertEquals(0, execution.calls);
+    }
+
+    private ResilientHttpInterceptor interceptor(int maxAttempts, boolean retryPost, CircuitBreaker breaker) {
+        return new ResilientHttpInterceptor("test", new ResilientHttpInterceptor.Policy(maxAttempts, 1, 10000, retryPost),
+                breaker, charged::add);
+    }
+
+    private static MockClientHttpRequest post() {
+        return new MockClientHttpRequest(HttpMethod.POST, URI.create("http://localhost/v1/chat/completions"));
+    }
+
+    /**
+     * Answers each call with the next scripted status; -1 throws a connection failure.
+     */
+    private static final class ScriptedExecution implements ClientHttpRequestExecution {
+        private final Deque<Integer> statuses = new ArrayDeque<>();
+        private int calls;
+
+        ScriptedExecution(Integer... statuses) {
+            this.statuses.addAll(List.of(statuses));
+        }
+
+        @Override
+        public ClientHttpResponse execute(HttpRequest request, byte[] body) throws IOException {
+            calls++;
+            int status = statuses.isEmpty() ? 200 : statuses.poll();
+            if (status < 0) {
+                throw new IOException("Connection refused");
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.valueOf(status));
+        }
+    }
+}
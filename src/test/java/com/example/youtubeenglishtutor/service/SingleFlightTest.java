@@ -0,0 +1,117 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneRunAndReplayProgress() throws Exception {
+        SingleFlight flight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstEmitted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> result = List.of("a", "b");
+
+        Future<List<String>> leader = pool.submit(() -> flight.<List<String>, String>run("questions:v1:10", p -> { }, emit -> {
+            runs.incrementAndGet();
+            emit.accept("a");
+            firstEmitted.countDown();
+            await(release);
+            emit.accept("b");
+            return result;
+        }, list -> new ArrayList<>(list)));
+        assertTrue(firstEmitted.await(5, TimeUnit.SECONDS));
+
+        List<List<String>> progress = new ArrayList<>();
+        List<Future<List<String>>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            List<String> seen = Collections.synchronizedList(new ArrayList<>());
+            progress.add(seen);
+            followers.add(pool.submit(() -> flight.<List<String>, String>run("questions:v1:10", seen::add, emit -> {
+                runs.incrementAndGet();
+                return List.<String>of();
+            }, list -> new ArrayList<>(list))));
+        }
+        while (flight.stats().joined().getOrDefault("questions", 0L) < 5) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertSame(result, leader.get(5, TimeUnit.SECONDS));
+        for (int i = 0; i < followers.size(); i++) {
+            List<String> value = followers.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(result, value);
+            assertTrue(value != result, "followers get their own copy");
+            assertEquals(List.of("a", "b"), progress.get(i));
+        }
+        assertEquals(1, runs.get());
+        assertEquals(1L, flight.stats().led().get("questions"));
+        assertEquals(0, flight.stats().inFlight());
+    }
+
+    @Test
+    void followersSeeTheLeadersFailure() throws Exception {
+        SingleFlight flight = new SingleFlight(true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = pool.submit(() -> flight.run("transcript:v2", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("yt-dlp failed");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Object> follower = pool.submit(() -> flight.run("transcript:v2", () -> "unused"));
+        while (flight.stats().joined().getOrDefault("transcript", 0L) < 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("yt-dlp failed", leaderError.getCause().getMessage());
+        assertEquals("yt-dlp failed", followerError.getCause().getMessage());
+    }
+
+    @Test
+    void landedFlightsAreNotCached() {
+        SingleFlight flight = new SingleFlight(true);
+        AtomicInteger runs = new AtomicInteger();
+
+        flight.run("chunks:m:h", runs::incrementAndGet);
+        flight.run("chunks:m:h", runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+        assertEquals(2L, flight.stats().led().get("chunks"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
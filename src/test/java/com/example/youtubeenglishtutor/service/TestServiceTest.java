@@ -0,0 +1,311 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.youtubeenglishtutor.entity.CatalogQuestionPack;
+import com.example.youtubeenglishtutor.entity.CatalogVideo;
+import com.example.youtubeenglishtutor.entity.Question;
+import com.example.youtubeenglishtutor.entity.QuestionType;
+import com.example.youtubeenglishtutor.entity.Test;
+import com.example.youtubeenglishtutor.repository.CatalogPreparationRepository;
+import com.example.youtubeenglishtutor.repository.CatalogQuestionPackRepository;
+import com.example.youtubeenglishtutor.repository.CatalogTranscriptChunkRepository;
+import com.example.youtubeenglishtutor.repository.CatalogVideoRepository;
+import com.example.youtubeenglishtutor.repository.TestRepository;
+import com.example.youtubeenglishtutor.repository.TranscriptChunkRepository;
+import com.example.youtubeenglishtutor.repository.WrongQuestionRepository;
+import com.example.youtubeenglishtutor.web.LearnerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+class TestServiceTest {
+
+    private static final String LEARNER = "learner-1";
+    private static final String VIDEO_URL = "https://www.youtube.com/watch?v=bees1234567";
+    private static final String OTHER_VIDEO_URL = "https://www.youtube.com/watch?v=ants7654321";
+    private static final String TRANSCRIPT = "Welcome back to the channel. Today we look at how bees communicate "
+            + "through dances, why the waggle dance matters, and what researchers learned by filming hives.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LearnerContext learnerContext = new LearnerContext();
+    private final Map<Long, Test> tests = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger modelCalls = new AtomicInteger();
+    private final List<CatalogQuestionPack> packs = new ArrayList<>();
+    private final SingleFlight singleFlight = new SingleFlight(true);
+    private final CountingTransactionManager transactions = new CountingTransactionManager();
+    private CatalogVideo catalogVideo;
+    private Runnable beforeGeneration = () -> { };
+
+    @AfterEach
+    void clearLearner() {
+        learnerContext.clear();
+    }
+
+    @org.junit.jupiter.api.Test
+    void regenerateAtANewDifficultySwapsInTheCatalogPack() throws Exception {
+        catalogVideo = new CatalogVideo();
+        catalogVideo.setVideoId("bees1234567");
+        packs.add(pack(DifficultyLevel.EASIER, List.of("easy-1", "easy-2", "easy-3")));
+        Test test = existingTest(3);
+
+        Test regenerated = service().regenerateTest(test.getId(), DifficultyLevel.EASIER);
+
+        assertEquals(List.of("easy-1", "easy-2", "easy-3"), regenerated.getQuestions().stream().map(Question::getText).toList());
+        assertEquals(DifficultyLevel.EASIER.name(), regenerated.getDifficulty());
+        assertEquals(0, modelCalls.get());
+    }
+
+    @org.junit.jupiter.api.Test
+    void regenerateAtTheSameDifficultyAsksTheModelForNewQuestions() throws Exception {
+        catalogVideo = new CatalogVideo();
+        catalogVideo.setVideoId("bees1234567");
+        packs.add(pack(DifficultyLevel.EASIER, List.of("easy-1", "easy-2", "easy-3")));
+        Test test = existingTest(3);
+        test.setDifficulty(DifficultyLevel.EASIER.name());
+
+        Test regenerated = service().regenerateTest(test.getId(), DifficultyLevel.EASIER);
+
+        assertEquals(1, modelCalls.get());
+        assertEquals(3, regenerated.getQuestions().size());
+        assertEquals("generated-1", regenerated.getQuestions().get(0).getText());
+    }
+
+    @org.junit.jupiter.api.Test
+    void concurrentLearnersShareOneGenerationWithoutHoldingATransactionWhileWaiting(@TempDir Path downloads) throws Exception {
+        int learners = 4;
+        TestService service = service();
+        AtomicInteger transactionsDuringGeneration = new AtomicInteger(-1);
+        beforeGeneration = () -> {
+            // Let every other learner join the flight, then look at what they hold while they wait.
+            long deadline = System.currentTimeMillis() + 5000;
+            while (singleFlight.stats().joined().getOrDefault("questions", 0L) < learners - 1 && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            transactionsDuringGeneration.set(transactions.active.get());
+        };
+
+        List<Test> created = createConcurrently(service, learners, downloads, false);
+
+        assertEquals(1, modelCalls.get());
+        assertEquals(learners - 1, singleFlight.stats().joined().get("questions"));
+        assertEquals(0, transactionsDuringGeneration.get());
+        assertEquals(learners, created.stream().map(Test::getId).distinct().count());
+        Set<Question> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Test test : created) {
+            assertEquals(3, test.getQuestions().size());
+            test.getQuestions().forEach(q -> assertTrue(seen.add(q), "question shared between learners"));
+        }
+        assertEquals(learners, transactions.committed.get());
+    }
+
+    @org.junit.jupiter.api.Test
+    void freshQuestionsAreNotCoalesced(@TempDir Path downloads) throws Exception {
+        List<Test> created = createConcurrently(service(), 2, downloads, true);
+
+        assertEquals(2, modelCalls.get());
+        assertEquals(2, created.size());
+    }
+
+    private List<Test> createConcurrently(TestService service, int learners, Path downloads, boolean fresh) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(learners);
+        try {
+            List<Future<Test>> futures = new ArrayList<>();
+            for (int i = 0; i < learners; i++) {
+                String learner = "learner-" + i;
+                futures.add(pool.submit(() -> {
+                    learnerContext.setCurrentLearnerId(learner);
+                    try {
+                        return service.createTest(OTHER_VIDEO_URL, downloads.toString(), false, 3, fresh, q -> { });
+                    } finally {
+                        learnerContext.clear();
+                    }
+                }));
+            }
+            List<Test> created = new ArrayList<>();
+            for (Future<Test> future : futures) {
+                created.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return created;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Test existingTest(int questionCount) {
+        learnerContext.setCurrentLearnerId(LEARNER);
+        Test test = new Test();
+        test.setLearnerId(LEARNER);
+        test.setVideoUrl(VIDEO_URL);
+        test.setTranscript(TRANSCRIPT);
+        for (int i = 0; i < questionCount; i++) {
+            test.addQuestion(question("original-" + (i + 1)));
+        }
+        return save(test);
+    }
+
+    private CatalogQuestionPack pack(DifficultyLevel difficulty, List<String> texts) throws Exception {
+        CatalogQuestionPack pack = new CatalogQuestionPack();
+        pack.setCatalogVideo(catalogVideo);
+        pack.setDifficulty(difficulty.name());
+        pack.setSize(texts.size());
+        pack.setTranscriptVersion(ContentHashes.sha256Hex(TRANSCRIPT));
+        pack.setQuestionsJson(objectMapper.writeValueAsString(texts.stream().map(TestServiceTest::question).toList()));
+        return pack;
+    }
+
+    private TestService service() {
+        EmbeddingService embeddings = new LocalEmbeddingService(64, 3, 5);
+        TestRepository testRepository = fake(TestRepository.class, Map.of(
+                "findByIdAndLearnerId", args -> Optional.ofNullable(tests.get((Long) args[0]))
+                        .filter(t -> t.getLearnerId().equals(args[1])),
+                "save", args -> save((Test) args[0])));
+        WrongQuestionRepository wrongQuestions = fake(WrongQuestionRepository.class, Map.of(
+                "deleteByTestId", args -> null));
+        CatalogVideoRepository videos = fake(CatalogVideoRepository.class, Map.of(
+                "findFirstByVideoId", args -> Optional.ofNullable(catalogVideo)
+                        .filter(v -> v.getVideoId().equals(args[0]))));
+        CatalogPreparationRepository preparations = fake(CatalogPreparationRepository.class, Map.of(
+                "findByCatalogVideo", args -> Optional.empty()));
+        CatalogQuestionPackRepository packRepository = fake(CatalogQuestionPackRepository.class, Map.of(
+                "findNearest", args -> packs.stream()
+                        .filter(p -> p.getCatalogVideo() == args[0] && p.getDifficulty().equals(args[2]))
+                        .toList()));
+        TranscriptChunkRepository chunks = fake(TranscriptChunkRepository.class, Map.of(
+                "deleteByTestId", args -> null,
+                "saveAll", args -> args[0]));
+        RagService ragService = new RagService(chunks, fake(CatalogTranscriptChunkRepository.class, Map.of()), embeddings,
+                null, learnerContext, new VectorIndexCache(1 << 20, 10), new TranscriptChunker(60, 10), singleFlight,
+                400, 5, false, 0.7, 20, RetrievalStrategy.VECTOR, 0.7, 1500, 1, 4, false, 50, "scalar");
+        CatalogPackService packService = new CatalogPackService(packRepository, null, ragService, objectMapper, null, 72);
+        return new TestService(testRepository, wrongQuestions, new CountingQuestionService(), url -> TRANSCRIPT, ragService,
+                videos, preparations, null, packRepository, packService, new FixedMetadata(), null, learnerContext,
+                new GenerationCache(null, objectMapper, null, false, 168, 2),
+                new QuestionBank(null, null, false, 1.5, 200),
+                singleFlight, transactions);
+    }
+
+    private Test save(Test test) {
+        if (test.getId() == null) {
+            try {
+                Field id = Test.class.getDeclaredField("id");
+                id.setAccessible(true);
+                id.set(test, ids.incrementAndGet());
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        tests.put(test.getId(), test);
+        return test;
+    }
+
+    private static Question question(String text) {
+        Question question = new Question();
+        question.setType(QuestionType.SINGLE_CHOICE);
+        question.setText(text);
+        question.setOptions("A|B|C|D");
+        question.setCorrectAnswer("A");
+        return question;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            return switch (method.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> "Fake" + type.getSimpleName();
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+    private final class CountingQuestionService implements AiQuestionService {
+        @Override
+        public List<Question> generateQuestionsFromTranscript(String transcript, DifficultyLevel difficulty, int count, boolean includeWriting) {
+            return generateQuestionsFromTranscript(transcript, difficulty, count, includeWriting, q -> { });
+        }
+
+        @Override
+        public List<Question> generateQuestionsFromTranscript(
+                String transcript, DifficultyLevel difficulty, int count, boolean includeWriting, Consumer<Question> onQuestion) {
+            modelCalls.incrementAndGet();
+            beforeGeneration.run();
+            List<Question> questions = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Question q = question("generated-" + (i + 1));
+                onQuestion.accept(q);
+                questions.add(q);
+            }
+            return questions;
+        }
+
+        @Override
+        public String modelName() {
+            return "fake-model";
+        }
+    }
+
+    private static final class CountingTransactionManager implements PlatformTransactionManager {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger committed = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            active.incrementAndGet();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            active.decrementAndGet();
+            committed.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            active.decrementAndGet();
+        }
+    }
+
+    private static final class FixedMetadata implements VideoMetadataService {
+        @Override
+        public long getDurationSeconds(String videoUrl) {
+            return 300;
+        }
+
+        @Override
+        public String getTitle(String videoUrl) {
+            return "How bees dance";
+        }
+    }
+}
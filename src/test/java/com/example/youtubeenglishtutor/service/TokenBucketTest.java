@@ -0,0 +1,56 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+class TokenBucketTest {
+
+    @Test
+    void allowsBurstUpToCapacityThenQueues() {
+        TokenBucket bucket = new TokenBucket(60, 0);
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, bucket.reserve(1, 0));
+        }
+        assertEquals(1000, bucket.reserve(1, 0));
+        assertEquals(2000, bucket.reserve(1, 0));
+    }
+
+    @Test
+    void refillsContinuouslyUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(600, 0);
+        bucket.reserve(600, 0);
+        assertEquals(0, bucket.reserve(10, 1000));
+        assertEquals(600, bucket.available(10 * 60_000), 1e-9);
+    }
+
+    @Test
+    void oversizedRequestWaitsForAtMostOneFullBucket() {
+        TokenBucket bucket = new TokenBucket(1000, 0);
+        bucket.reserve(1000, 0);
+        assertEquals(60_000, bucket.reserve(50_000, 0));
+    }
+
+    @Test
+    void classifiesTransientFailures() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Retry-After", "3");
+        HttpClientErrorException tooMany = HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, new byte[0], StandardCharsets.UTF_8);
+        assertTrue(TransientFailures.isRetryable(new IllegalStateException("wrapped", tooMany)));
+        assertEquals(3000, TransientFailures.retryAfterMillis(tooMany));
+        assertTrue(TransientFailures.isRetryable(HttpServerErrorException.create(
+                HttpStatus.BAD_GATEWAY, "Bad Gateway", HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8)));
+        assertFalse(TransientFailures.isRetryable(HttpClientErrorException.create(
+                HttpStatus.UNAUTHORIZED, "Unauthorized", HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8)));
+        assertFalse(TransientFailures.isRetryable(new IllegalStateException("parse error")));
+        assertEquals(-1, TransientFailures.retryAfterMillis(new IllegalStateException("x")));
+    }
+}
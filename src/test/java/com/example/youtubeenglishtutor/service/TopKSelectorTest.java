@@ -0,0 +1,47 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class TopKSelectorTest {
+
+    @Test
+    void matchesFullSortIncludingTies() {
+        Random random = new Random(7);
+        float[] scores = new float[500];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = random.nextInt(50) / 50f; // plenty of ties
+        }
+        int[] expected = IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer row) -> scores[row]).reversed())
+                .limit(5)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        assertArrayEquals(expected, TopKSelector.select(scores, 5));
+    }
+
+    @Test
+    void returnsEverythingWhenFewerRowsThanK() {
+        assertArrayEquals(new int[] {1, 2, 0}, TopKSelector.select(new float[] {0.1f, 0.9f, 0.5f}, 5));
+        assertArrayEquals(new int[0], TopKSelector.select(new float[0], 5));
+    }
+
+    @Test
+    void mmrSkipsNearDuplicateOfTopHit() {
+        VectorIndex index = VectorIndex.builder()
+                .add(1L, "a", new float[] {1f, 0f})
+                .add(2L, "a'", new float[] {0.99f, 0.01f})
+                .add(3L, "b", new float[] {0f, 1f})
+                .build();
+        float[] relevance = {0.9f, 0.89f, 0.5f};
+
+        int[] reranked = MmrReranker.rerank(index, TopKSelector.select(relevance, 3), relevance, 2, 0.5);
+
+        assertArrayEquals(new int[] {0, 2}, reranked);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TranscriptChunkerTest {
+
+    private static final String TRANSCRIPT = """
+            Hello   everyone and welcome back.  Today we are going to talk about travel.
+            First, pack light!  Second, learn a few words of the local language.
+            Finally,\tdon't forget your passport? That is all for today.
+            """;
+
+    @Test
+    void windowsRespectSizeAndEndOnWordBoundaries() {
+        List<TranscriptChunker.Chunk> chunks = TranscriptChunker.chunk(TRANSCRIPT, 80, 20);
+
+        assertTrue(chunks.size() > 1);
+        for (TranscriptChunker.Chunk chunk : chunks) {
+            assertTrue(chunk.text().length() <= 80, chunk.text());
+            assertEquals(collapse(TRANSCRIPT.substring(chunk.start(), chunk.end())), chunk.text());
+            assertEquals(chunk.text(), TranscriptChunker.collapse(TRANSCRIPT, chunk.start(), chunk.end(), Integer.MAX_VALUE - 1));
+            assertTrue(Character.isWhitespace(TRANSCRIPT.charAt(chunk.end())) || chunk.end() == TRANSCRIPT.length());
+        }
+        assertEquals("Hello everyone and welcome back.", chunks.get(0).text().substring(0, 32));
+        assertTrue(chunks.get(chunks.size() - 1).text().endsWith("That is all for today."));
+    }
+
+    @Test
+    void preferSentenceEndsAndOverlapWholeWords() {
+        List<TranscriptChunker.Chunk> chunks = TranscriptChunker.chunk(TRANSCRIPT, 80, 20);
+
+        assertEquals("Hello everyone and welcome back. Today we are going to talk about travel.", chunks.get(0).text());
+        assertTrue(chunks.get(1).start() < chunks.get(0).end(), "consecutive chunks overlap");
+        assertTrue(chunks.get(1).text().startsWith("talk about travel."), chunks.get(1).text());
+    }
+
+    @Test
+    void shortAndBlankTranscripts() {
+        assertEquals(List.of(), TranscriptChunker.chunk("  \n ", 80, 20));
+        List<TranscriptChunker.Chunk> single = TranscriptChunker.chunk("  just a line  ", 80, 20);
+        assertEquals(1, single.size());
+        assertEquals("just a line", single.get(0).text());
+        assertEquals(2, single.get(0).start());
+        assertEquals(13, single.get(0).end());
+    }
+
+    @Test
+    void splitsWordsLongerThanTheWindow() {
+        List<TranscriptChunker.Chunk> chunks = TranscriptChunker.chunk("a".repeat(25), 10, 3);
+
+        assertEquals(List.of("a".repeat(10), "a".repeat(10), "a".repeat(5)), chunks.stream().map(TranscriptChunker.Chunk::text).toList());
+    }
+
+    @Test
+    void indexResolvesSpansAgainstTheTranscript() {
+        List<TranscriptChunker.Chunk> chunks = TranscriptChunker.chunk(TRANSCRIPT, 80, 20);
+        VectorIndex.Builder builder = VectorIndex.builder().source(TRANSCRIPT);
+        for (int i = 0; i < chunks.size(); i++) {
+            builder.addSpan((long) i, chunks.get(i).start(), chunks.get(i).end(), new float[] {1f, i});
+        }
+        builder.add(99L, "legacy inline row", new float[] {1f, 0f});
+        VectorIndex index = builder.build();
+
+        for (int i = 0; i < chunks.size(); i++) {
+            assertEquals(chunks.get(i).text(), index.content(i));
+        }
+        assertEquals("legacy inline row", index.content(chunks.size()));
+        assertEquals("Hello every", index.content(0, 10));
+    }
+
+    private static String collapse(String text) {
+        return String.join(" ", text.trim().split("\\s+"));
+    }
+}
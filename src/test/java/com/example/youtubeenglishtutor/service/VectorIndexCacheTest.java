@@ -0,0 +1,64 @@
+package com.example.youtubeenglishtutor.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class VectorIndexCacheTest {
+
+    @Test
+    void buildsOnceAndCountsHits() {
+        VectorIndexCache cache = new VectorIndexCache(1 << 20, 10);
+        AtomicInteger builds = new AtomicInteger();
+        VectorIndex first = cache.getOrBuild("test:1", () -> {
+            builds.incrementAndGet();
+            return index(4);
+        });
+        VectorIndex second = cache.getOrBuild("test:1", () -> {
+            builds.incrementAndGet();
+            return index(4);
+        });
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(first.memoryBytes(), cache.stats().memoryBytes());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenOverEntryLimit() {
+        VectorIndexCache cache = new VectorIndexCache(1 << 20, 2);
+        cache.getOrBuild("a", () -> index(2));
+        cache.getOrBuild("b", () -> index(2));
+        cache.getOrBuild("a", () -> index(2));
+        cache.getOrBuild("c", () -> index(2));
+
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().entries());
+        cache.getOrBuild("a", () -> index(2));
+        assertEquals(2, cache.stats().hits());
+    }
+
+    @Test
+    void invalidateForcesRebuild() {
+        VectorIndexCache cache = new VectorIndexCache(1 << 20, 10);
+        cache.getOrBuild("test:1", () -> index(2));
+        cache.invalidate("test:1");
+
+        assertEquals(0, cache.stats().entries());
+        assertEquals(0, cache.stats().memoryBytes());
+        cache.getOrBuild("test:1", () -> index(2));
+        assertEquals(2, cache.stats().misses());
+    }
+
+    private VectorIndex index(int rows) {
+        VectorIndex.Builder builder = VectorIndex.builder();
+        for (int i = 0; i < rows; i++) {
+            builder.add((long) i, "chunk " + i, new float[] {i, 1f, 0f});
+        }
+        return builder.build();
+    }
+}